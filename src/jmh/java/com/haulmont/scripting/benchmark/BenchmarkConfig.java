@@ -0,0 +1,12 @@
+package com.haulmont.scripting.benchmark;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import com.haulmont.scripting.repository.config.ScriptRepositoriesAutoConfiguration;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+@Configuration
+@Import(ScriptRepositoriesAutoConfiguration.class)
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.benchmark"})
+public class BenchmarkConfig {
+}
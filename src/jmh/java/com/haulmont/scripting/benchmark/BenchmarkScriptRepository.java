@@ -0,0 +1,28 @@
+package com.haulmont.scripting.benchmark;
+
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.JavaScript;
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository
+public interface BenchmarkScriptRepository {
+
+    @GroovyScript
+    String echo(@ScriptParam("value") String value);
+
+    @GroovyScript(timeout = 1_000L)
+    String echoWithTimeout(@ScriptParam("value") String value);
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator")
+    String echoNative(@ScriptParam("value") String value);
+
+    @JavaScript
+    String echoJs(@ScriptParam("value") String value);
+
+    @GroovyScript
+    default String echoDefault(@ScriptParam("value") String value) {
+        return value;
+    }
+}
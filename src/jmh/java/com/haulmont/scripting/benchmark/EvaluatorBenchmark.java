@@ -0,0 +1,127 @@
+package com.haulmont.scripting.benchmark;
+
+import com.haulmont.scripting.repository.evaluator.GroovyScriptJsrValuator;
+import com.haulmont.scripting.repository.evaluator.GroovyScriptNativeEvaluator;
+import com.haulmont.scripting.repository.evaluator.GroovyScriptStaticEvaluator;
+import com.haulmont.scripting.repository.evaluator.JavaScriptJsrEvaluator;
+import com.haulmont.scripting.repository.evaluator.ScriptSignature;
+import com.haulmont.scripting.repository.provider.VersionedScriptSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.scripting.ScriptSource;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluation of a trivial script by evaluators with default settings (compiled scripts cache and engine pool),
+ * so the numbers show evaluation overhead rather than script's own work. Numeric benchmarks compare dynamic and
+ * statically compiled Groovy on a small tax calculation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EvaluatorBenchmark {
+
+    private static final int CONTENDED_THREADS = 4;
+
+    private GroovyScriptJsrValuator groovyJsrEvaluator;
+
+    private GroovyScriptNativeEvaluator groovyNativeEvaluator;
+
+    private JavaScriptJsrEvaluator javaScriptEvaluator;
+
+    private GroovyScriptStaticEvaluator groovyStaticEvaluator;
+
+    private ScriptSource groovyScript;
+
+    private ScriptSource javaScript;
+
+    private Map<String, Object> parameters;
+
+    private ScriptSource taxScript;
+
+    private ScriptSignature taxSignature;
+
+    private Map<String, Object> taxParameters;
+
+    @Setup
+    public void setUp() {
+        groovyJsrEvaluator = new GroovyScriptJsrValuator();
+        groovyNativeEvaluator = new GroovyScriptNativeEvaluator();
+        javaScriptEvaluator = new JavaScriptJsrEvaluator();
+        groovyScript = new VersionedScriptSource("value + '!'", VersionedScriptSource.nextVersion(), "BenchmarkScript", "groovy benchmark script");
+        javaScript = new VersionedScriptSource("value + '!'", VersionedScriptSource.nextVersion(), "BenchmarkScript", "javascript benchmark script");
+        parameters = Collections.singletonMap("value", "value");
+
+        groovyStaticEvaluator = new GroovyScriptStaticEvaluator();
+        taxScript = new VersionedScriptSource(
+                "BigDecimal tax = 0\n" +
+                "for (int i = 0; i < 10; i++) {\n" +
+                "    tax += amount * rate\n" +
+                "}\n" +
+                "return tax", VersionedScriptSource.nextVersion(), "TaxScript", "tax benchmark script");
+        taxSignature = new ScriptSignature(new String[]{"amount", "rate"},
+                new Class<?>[]{BigDecimal.class, BigDecimal.class}, BigDecimal.class);
+        taxParameters = new HashMap<>();
+        taxParameters.put("amount", new BigDecimal("1250.50"));
+        taxParameters.put("rate", new BigDecimal("0.13"));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object groovyJsr() {
+        return groovyJsrEvaluator.evaluate(groovyScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Object groovyJsrContended() {
+        return groovyJsrEvaluator.evaluate(groovyScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object groovyNative() {
+        return groovyNativeEvaluator.evaluate(groovyScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Object groovyNativeContended() {
+        return groovyNativeEvaluator.evaluate(groovyScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object javaScriptJsr() {
+        return javaScriptEvaluator.evaluate(javaScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Object javaScriptJsrContended() {
+        return javaScriptEvaluator.evaluate(javaScript, parameters);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object taxGroovyNative() {
+        return groovyNativeEvaluator.evaluate(taxScript, taxParameters);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object taxGroovyStatic() {
+        return groovyStaticEvaluator.evaluate(taxScript, taxParameters, taxSignature);
+    }
+}
@@ -0,0 +1,75 @@
+package com.haulmont.scripting.benchmark;
+
+import com.haulmont.scripting.repository.config.AnnotationConfig;
+import com.haulmont.scripting.repository.evaluator.ParameterBindings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creation of script bindings from method arguments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ParameterMapBenchmark {
+
+    @Param({"1", "4", "8"})
+    private int parameterCount;
+
+    private String[] parameterNames;
+
+    private Object[] args;
+
+    private ParameterBindings.Layout layout;
+
+    @Setup
+    public void setUp() {
+        parameterNames = new String[parameterCount];
+        args = new Object[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            parameterNames[i] = "param" + i;
+            args[i] = "value" + i;
+        }
+        layout = new ParameterBindings.Layout(parameterNames);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Map<String, Object> createParameterMap() {
+        return AnnotationConfig.createParameterMap(parameterNames, args);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Map<String, Object> createParameterMapContended() {
+        return AnnotationConfig.createParameterMap(parameterNames, args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Map<String, Object> bindParameters() {
+        return layout.bind(args);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object lookupParameterMap() {
+        return AnnotationConfig.createParameterMap(parameterNames, args).get(parameterNames[parameterCount - 1]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object lookupParameterBindings() {
+        return layout.bind(args).get(parameterNames[parameterCount - 1]);
+    }
+}
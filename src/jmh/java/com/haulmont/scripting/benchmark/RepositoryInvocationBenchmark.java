@@ -0,0 +1,109 @@
+package com.haulmont.scripting.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures repository proxy invocation overhead: scripted methods executed in the caller's thread and
+ * in the repository thread pool, default methods without scripts and methods that are not scripted at all.
+ * Every benchmark has a contended variant that runs in several threads. All benchmarks are run with both
+ * JDK dynamic proxies and generated proxies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RepositoryInvocationBenchmark {
+
+    private static final int CONTENDED_THREADS = 4;
+
+    private AnnotationConfigApplicationContext ctx;
+
+    private BenchmarkScriptRepository repo;
+
+    private String value = "value";
+
+    @Param({"JDK", "CGLIB"})
+    public String proxyMode;
+
+    @Setup
+    public void setUp() {
+        ctx = new AnnotationConfigApplicationContext();
+        ctx.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Collections.singletonMap("script.repository.proxy.mode", proxyMode)));
+        ctx.register(BenchmarkConfig.class);
+        ctx.refresh();
+        repo = ctx.getBean(BenchmarkScriptRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String scriptedMethod() {
+        return repo.echo(value);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public String scriptedMethodContended() {
+        return repo.echo(value);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String scriptedMethodWithTimeout() {
+        return repo.echoWithTimeout(value);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public String scriptedMethodWithTimeoutContended() {
+        return repo.echoWithTimeout(value);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String javaScriptMethod() {
+        return repo.echoJs(value);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String defaultMethod() {
+        return repo.echoDefault(value);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public String defaultMethodContended() {
+        return repo.echoDefault(value);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int nonScriptedMethod() {
+        return repo.hashCode();
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public int nonScriptedMethodContended() {
+        return repo.hashCode();
+    }
+}
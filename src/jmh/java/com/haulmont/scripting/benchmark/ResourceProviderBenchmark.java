@@ -0,0 +1,70 @@
+package com.haulmont.scripting.benchmark;
+
+import com.haulmont.scripting.repository.provider.GroovyResourceProvider;
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.scripting.ScriptSource;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures script lookup cost in resource provider for existing and missing scripts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResourceProviderBenchmark {
+
+    private static final int CONTENDED_THREADS = 4;
+
+    private GroovyResourceProvider provider;
+
+    private Method scriptedMethod;
+
+    private Method missingScriptMethod;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        provider = new GroovyResourceProvider();
+        provider.setRootPath("classpath:com/haulmont/scripting/scripts");
+        scriptedMethod = BenchmarkScriptRepository.class.getMethod("echo", String.class);
+        missingScriptMethod = BenchmarkScriptRepository.class.getMethod("echoDefault", String.class);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        provider.destroy();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ScriptSource getScript() {
+        return provider.getScript(scriptedMethod);
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public ScriptSource getScriptContended() {
+        return provider.getScript(scriptedMethod);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object getMissingScript() {
+        try {
+            return provider.getScript(missingScriptMethod);
+        } catch (ScriptNotFoundException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package com.haulmont.scripting.scripts
+
+return value
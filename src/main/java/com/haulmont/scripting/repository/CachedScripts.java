@@ -0,0 +1,48 @@
+package com.haulmont.scripting.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables caching of scripts returned by a script provider bean. Can be put on a provider class or on a {@code @Bean}
+ * method that creates a provider. The provider bean is replaced with
+ * {@link com.haulmont.scripting.repository.provider.CachingScriptProvider} under the same name, the original bean
+ * is kept with {@code cachedScriptsTarget.} name prefix and keeps its scope, so prototype providers get a new instance
+ * for every script load.
+ * <p>
+ * In XML configuration use {@code <repo:cached-scripts/>} element inside the provider's {@code <bean>} element.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CachedScripts {
+
+    /**
+     * Maximum number of cached scripts, least recently used scripts are evicted first.
+     * @return maximum cache size.
+     */
+    int maxSize() default 1000;
+
+    /**
+     * Maximum estimated memory taken by cached scripts in bytes.
+     * @return maximum cache weight, negative value if not limited.
+     */
+    long maxWeight() default -1L;
+
+    /**
+     * Time in milliseconds after a script is loaded from the provider again.
+     * @return time to live, negative value if scripts never expire.
+     */
+    long ttl() default 60_000L;
+
+    /**
+     * Time in milliseconds before expiration when a requested script is reloaded in background, so callers
+     * do not wait for the provider.
+     * @return refresh-ahead time, zero to disable background reload.
+     */
+    long refreshAhead() default 0L;
+
+}
@@ -0,0 +1,23 @@
+package com.haulmont.scripting.repository;
+
+/**
+ * Defines which thread executes scripted method.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Script is executed in the caller's thread if no timeout is set, otherwise in repository executor.
+     */
+    AUTO,
+
+    /**
+     * Script is always executed in the caller's thread. Timeout is not enforced in this mode.
+     */
+    CALLER_THREAD,
+
+    /**
+     * Script is always executed in repository executor.
+     */
+    EXECUTOR
+
+}
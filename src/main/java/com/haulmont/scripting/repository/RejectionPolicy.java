@@ -0,0 +1,18 @@
+package com.haulmont.scripting.repository;
+
+/**
+ * Defines what happens with a scripted method invocation if repository thread pool and its queue are full.
+ */
+public enum RejectionPolicy {
+
+    /**
+     * Invocation fails with an error.
+     */
+    ABORT,
+
+    /**
+     * Script is executed in the caller's thread.
+     */
+    CALLER_RUNS
+
+}
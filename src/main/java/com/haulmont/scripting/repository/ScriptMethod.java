@@ -45,4 +45,119 @@ public @interface ScriptMethod {
      */
     String description() default "";
 
+    /**
+     * Spring bean name of {@link java.util.concurrent.Executor} that will execute the script instead of
+     * repository thread pool.
+     * @return executor bean name, empty string to use repository thread pool.
+     */
+    String executorBeanName() default "";
+
+    /**
+     * Defines whether the script is executed in the caller's thread or in an executor.
+     * By default, executor is used only if timeout is set.
+     * @return execution mode.
+     */
+    ExecutionMode executionMode() default ExecutionMode.AUTO;
+
+    /**
+     * Maximum number of memoized results. Results are cached by argument values, so repeated calls with equal
+     * arguments return cached result without script evaluation. Use it for methods which scripts are pure functions
+     * of their arguments. Memoized results are dropped when the provider returns changed script.
+     * @return memoized results cache size, zero to disable memoization.
+     */
+    int memoizeSize() default 0;
+
+    /**
+     * Time in milliseconds after memoized result is evaluated again.
+     * @return memoized result time to live, negative value if results never expire.
+     */
+    long memoizeTtl() default -1L;
+
+    /**
+     * Defines whether script errors are memoized as well. Timeouts and interruptions are never memoized.
+     * @return true if failed invocations should be memoized.
+     */
+    boolean memoizeFailures() default false;
+
+    /**
+     * CPU time in milliseconds one invocation may consume. The evaluation is interrupted and fails
+     * with {@link com.haulmont.scripting.repository.evaluator.ResourceBudgetExceededException} when it is exceeded.
+     * @return CPU time budget, negative value if not limited.
+     */
+    long cpuBudget() default -1L;
+
+    /**
+     * Memory in bytes one invocation may allocate. The evaluation is interrupted and fails
+     * with {@link com.haulmont.scripting.repository.evaluator.ResourceBudgetExceededException} when it is exceeded.
+     * @return allocation budget, negative value if not limited.
+     */
+    long allocationBudget() default -1L;
+
+    /**
+     * Number of recent invocations the circuit breaker computes failure and slow call rates from. When a rate
+     * reaches its threshold, the breaker opens and invocations fail fast with
+     * {@link com.haulmont.scripting.repository.evaluator.CircuitBreakerOpenException} or call the default method.
+     * @return circuit breaker window size, zero to disable the circuit breaker.
+     */
+    int circuitBreakerWindow() default 0;
+
+    /**
+     * Percentage of failed invocations in the window that opens the circuit breaker. Timeouts are failures as well.
+     * @return failure rate threshold, 1 to 100.
+     */
+    int circuitBreakerFailureRate() default 50;
+
+    /**
+     * Duration in milliseconds after which an invocation is considered slow by the circuit breaker.
+     * @return slow call duration, negative value if invocations are never slow.
+     */
+    long circuitBreakerSlowCallDuration() default -1L;
+
+    /**
+     * Percentage of slow invocations in the window that opens the circuit breaker.
+     * @return slow call rate threshold, 1 to 100.
+     */
+    int circuitBreakerSlowCallRate() default 100;
+
+    /**
+     * Time in milliseconds the circuit breaker stays open before it lets probe invocations through.
+     * @return open state duration.
+     */
+    long circuitBreakerOpenDuration() default 30_000L;
+
+    /**
+     * Number of probe invocations in half-open state. If all of them succeed, the breaker closes, otherwise it opens again.
+     * @return number of probe invocations.
+     */
+    int circuitBreakerHalfOpenCalls() default 1;
+
+    /**
+     * Maximum number of concurrent invocations of the method. Invocations over the limit wait in a queue
+     * of {@link #maxWaitingCalls()} or are rejected with
+     * {@link com.haulmont.scripting.repository.evaluator.EvaluationStatus#REJECTED} status.
+     * @return concurrency limit, zero if not limited.
+     */
+    int maxConcurrentCalls() default 0;
+
+    /**
+     * Maximum number of invocations waiting for a free slot when the concurrency limit is reached. Callers wait
+     * in their own threads, so asynchronous methods never wait and reject invocations over the limit immediately.
+     * @return wait queue size, zero to reject invocations over the limit immediately.
+     */
+    int maxWaitingCalls() default 0;
+
+    /**
+     * Time in milliseconds an invocation may wait in the queue for a free slot before it is rejected.
+     * @return maximum wait time.
+     */
+    long maxWaitTime() default 1000L;
+
+    /**
+     * Latency in milliseconds that marks the method as overloaded. If set, the concurrency limit becomes adaptive:
+     * it is decreased multiplicatively when an invocation is slower and increased additively up to
+     * {@link #maxConcurrentCalls()} otherwise.
+     * @return latency threshold, negative value for a fixed limit.
+     */
+    long concurrencyLatencyThreshold() default -1L;
+
 }
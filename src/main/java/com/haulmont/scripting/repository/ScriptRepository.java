@@ -8,6 +8,9 @@ import java.lang.annotation.Target;
 
 /**
  * Marker for script repository interface.
+ * <p>
+ * Every repository executes its scripts in its own thread pool, so a slow repository does not affect others.
+ * The pool can be configured using annotation attributes or replaced with an {@link java.util.concurrent.Executor} bean.
  */
 @Documented
 @Retention(RetentionPolicy.RUNTIME)
@@ -20,4 +23,42 @@ public @interface ScriptRepository {
      */
     String description() default "";
 
+    /**
+     * Spring bean name of {@link java.util.concurrent.Executor} that will execute repository scripts.
+     * If set, thread pool attributes are ignored.
+     * @return executor bean name, empty string if repository has its own thread pool.
+     */
+    String executorBeanName() default "";
+
+    /**
+     * Number of threads kept in repository thread pool.
+     * @return core pool size.
+     */
+    int corePoolSize() default 4;
+
+    /**
+     * Maximum number of threads in repository thread pool, additional threads are created if the queue is full.
+     * @return maximum pool size.
+     */
+    int maxPoolSize() default 16;
+
+    /**
+     * Maximum number of invocations waiting for a free thread.
+     * @return queue capacity, zero if invocations should not be queued.
+     */
+    int queueCapacity() default 1000;
+
+    /**
+     * Action to be taken if all threads are busy and the queue is full.
+     * @return rejection policy.
+     */
+    RejectionPolicy rejectionPolicy() default RejectionPolicy.ABORT;
+
+    /**
+     * Maximum number of concurrent invocations of all scripted methods of the repository. Invocations over the limit
+     * are rejected immediately with {@link com.haulmont.scripting.repository.evaluator.EvaluationStatus#REJECTED} status.
+     * @return concurrency limit, zero if not limited.
+     */
+    int maxConcurrentCalls() default 0;
+
 }
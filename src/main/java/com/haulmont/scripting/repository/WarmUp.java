@@ -0,0 +1,32 @@
+package com.haulmont.scripting.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares sample arguments for scripted method warm-up. When warm-up is enabled with
+ * {@code script.repository.warmup.enabled} property, scripts of all methods are fetched and compiled
+ * on application context start, methods annotated with this annotation are also evaluated with sample arguments.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface WarmUp {
+
+    /**
+     * Sample argument values in order of method parameters. Values are converted to parameter types
+     * using Spring conversion service.
+     * @return sample arguments.
+     */
+    String[] args() default {};
+
+    /**
+     * How many times the script should be evaluated with sample arguments.
+     * @return number of warm-up evaluations.
+     */
+    int invocations() default 1;
+
+}
@@ -1,5 +1,6 @@
 package com.haulmont.scripting.repository.config;
 
+import com.haulmont.scripting.repository.ExecutionMode;
 import com.haulmont.scripting.repository.ScriptParam;
 
 import java.io.Serializable;
@@ -22,13 +23,67 @@ public class AnnotationConfig implements Serializable {
     public final String evaluator;
     public final long timeout;
     public final String description;
+    public final String executor;
+    public final ExecutionMode executionMode;
+    public final int memoizeSize;
+    public final long memoizeTtl;
+    public final boolean memoizeFailures;
+    public final long cpuBudget;
+    public final long allocationBudget;
+    public final CircuitBreakerConfig circuitBreaker; //null if circuit breaker is disabled
+    public final ConcurrencyLimitConfig concurrencyLimit; //null if concurrency is not limited
 
     public AnnotationConfig(Class<? extends Annotation> scriptAnnotation, String provider, String evaluator, long timeout, String description) {
-        this.scriptAnnotation = scriptAnnotation;
-        this.provider = provider;
-        this.evaluator = evaluator;
-        this.timeout = timeout;
-        this.description = description;
+        this(builder(scriptAnnotation).provider(provider).evaluator(evaluator).timeout(timeout).description(description));
+    }
+
+    private AnnotationConfig(Builder builder) {
+        this.scriptAnnotation = builder.scriptAnnotation;
+        this.provider = builder.provider;
+        this.evaluator = builder.evaluator;
+        this.timeout = builder.timeout;
+        this.description = builder.description;
+        this.executor = builder.executor;
+        this.executionMode = builder.executionMode;
+        this.memoizeSize = builder.memoizeSize;
+        this.memoizeTtl = builder.memoizeTtl;
+        this.memoizeFailures = builder.memoizeFailures;
+        this.cpuBudget = builder.cpuBudget;
+        this.allocationBudget = builder.allocationBudget;
+        this.circuitBreaker = builder.circuitBreaker;
+        this.concurrencyLimit = builder.concurrencyLimit;
+    }
+
+    /**
+     * Creates builder of configuration with default values of optional settings.
+     *
+     * @param scriptAnnotation annotation the method is configured with.
+     * @return new builder.
+     */
+    public static Builder builder(Class<? extends Annotation> scriptAnnotation) {
+        return new Builder(scriptAnnotation);
+    }
+
+    /**
+     * Creates builder initialized with values of this configuration.
+     *
+     * @return new builder.
+     */
+    public Builder toBuilder() {
+        return builder(scriptAnnotation)
+                .provider(provider)
+                .evaluator(evaluator)
+                .timeout(timeout)
+                .description(description)
+                .executor(executor)
+                .executionMode(executionMode)
+                .memoizeSize(memoizeSize)
+                .memoizeTtl(memoizeTtl)
+                .memoizeFailures(memoizeFailures)
+                .cpuBudget(cpuBudget)
+                .allocationBudget(allocationBudget)
+                .circuitBreaker(circuitBreaker)
+                .concurrencyLimit(concurrencyLimit);
     }
 
     @Override
@@ -39,6 +94,15 @@ public class AnnotationConfig implements Serializable {
                 ", evaluator='" + evaluator + '\'' +
                 ", timeout=" + timeout +
                 ", description='" + description + '\'' +
+                ", executor='" + executor + '\'' +
+                ", executionMode=" + executionMode +
+                ", memoizeSize=" + memoizeSize +
+                ", memoizeTtl=" + memoizeTtl +
+                ", memoizeFailures=" + memoizeFailures +
+                ", cpuBudget=" + cpuBudget +
+                ", allocationBudget=" + allocationBudget +
+                ", circuitBreaker=" + circuitBreaker +
+                ", concurrencyLimit=" + concurrencyLimit +
                 '}';
     }
 
@@ -50,9 +114,17 @@ public class AnnotationConfig implements Serializable {
      * @return parameter name - value maps.
      */
     public Map<String, Object> createParameterMap(Method method, Object[] args) {
-        String[] argNames = Arrays.stream(method.getParameters())
-                .map(getParameterName())
-                .toArray(String[]::new);
+        return createParameterMap(getParameterNames(method), args);
+    }
+
+    /**
+     * Creates parameters map based on parameter names and actual argument values.
+     *
+     * @param argNames parameter names, see {@link #getParameterNames(Method)}.
+     * @param args     actual argument values.
+     * @return parameter name - value maps.
+     */
+    public static Map<String, Object> createParameterMap(String[] argNames, Object[] args) {
         int length = args != null ? args.length : 0;
         if (argNames.length != length) {
             throw new IllegalArgumentException(String.format("Parameters and args must be the same length. Parameters: %d args: %d", argNames.length, length));
@@ -64,16 +136,135 @@ public class AnnotationConfig implements Serializable {
         return paramsMap;
     }
 
+    /**
+     * Returns parameter names that will be used in script for a method.
+     *
+     * @param method scripted method.
+     * @return parameter names in declaration order.
+     */
+    public static String[] getParameterNames(Method method) {
+        return Arrays.stream(method.getParameters())
+                .map(getParameterName())
+                .toArray(String[]::new);
+    }
+
     /**
      * Returns parameter name for a method.
      *
      * @return parameter name.
      */
-    private Function<Parameter, String> getParameterName() {
+    private static Function<Parameter, String> getParameterName() {
         return p -> p.isAnnotationPresent(ScriptParam.class)
                 ? p.getAnnotation(ScriptParam.class).value()
                 : p.getName();
     }
 
 
+    /**
+     * Builder of {@link AnnotationConfig}, optional settings default to the values of
+     * {@link com.haulmont.scripting.repository.ScriptMethod} attributes.
+     */
+    public static class Builder {
+
+        private Class<? extends Annotation> scriptAnnotation;
+        private String provider;
+        private String evaluator;
+        private long timeout;
+        private String description;
+        private String executor = "";
+        private ExecutionMode executionMode = ExecutionMode.AUTO;
+        private int memoizeSize;
+        private long memoizeTtl = -1L;
+        private boolean memoizeFailures;
+        private long cpuBudget = -1L;
+        private long allocationBudget = -1L;
+        private CircuitBreakerConfig circuitBreaker;
+        private ConcurrencyLimitConfig concurrencyLimit;
+
+        private Builder(Class<? extends Annotation> scriptAnnotation) {
+            this.scriptAnnotation = scriptAnnotation;
+        }
+
+        public Builder scriptAnnotation(Class<? extends Annotation> scriptAnnotation) {
+            this.scriptAnnotation = scriptAnnotation;
+            return this;
+        }
+
+        public Builder provider(String provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        public Builder evaluator(String evaluator) {
+            this.evaluator = evaluator;
+            return this;
+        }
+
+        public Builder timeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder executor(String executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder executionMode(ExecutionMode executionMode) {
+            this.executionMode = executionMode;
+            return this;
+        }
+
+        public Builder memoizeSize(int memoizeSize) {
+            this.memoizeSize = memoizeSize;
+            return this;
+        }
+
+        public Builder memoizeTtl(long memoizeTtl) {
+            this.memoizeTtl = memoizeTtl;
+            return this;
+        }
+
+        public Builder memoizeFailures(boolean memoizeFailures) {
+            this.memoizeFailures = memoizeFailures;
+            return this;
+        }
+
+        public Builder cpuBudget(long cpuBudget) {
+            this.cpuBudget = cpuBudget;
+            return this;
+        }
+
+        public Builder allocationBudget(long allocationBudget) {
+            this.allocationBudget = allocationBudget;
+            return this;
+        }
+
+        /**
+         * @param circuitBreaker circuit breaker parameters, null to disable circuit breaker.
+         * @return this builder.
+         */
+        public Builder circuitBreaker(CircuitBreakerConfig circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * @param concurrencyLimit concurrency limit parameters, null if concurrency is not limited.
+         * @return this builder.
+         */
+        public Builder concurrencyLimit(ConcurrencyLimitConfig concurrencyLimit) {
+            this.concurrencyLimit = concurrencyLimit;
+            return this;
+        }
+
+        public AnnotationConfig build() {
+            return new AnnotationConfig(this);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.haulmont.scripting.repository.config;
+
+import com.haulmont.scripting.repository.CachedScripts;
+import com.haulmont.scripting.repository.provider.CachingScriptProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ObjectFactoryCreatingFactoryBean;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.xml.BeanDefinitionDecorator;
+import org.springframework.beans.factory.xml.ParserContext;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces script provider bean definitions with {@link CachingScriptProvider} definitions. The original definition
+ * is registered with {@link #TARGET_NAME_PREFIX} and is not an autowire candidate anymore, caching provider
+ * gets the original bean name and takes provider instances from the original definition, so its scope is preserved.
+ * <p>
+ * Handles {@code <repo:cached-scripts/>} XML element and {@link CachedScripts} annotation.
+ */
+public class CachedScriptsBeanDefinitionDecorator implements BeanDefinitionDecorator {
+
+    public static final String TARGET_NAME_PREFIX = "cachedScriptsTarget.";
+
+    private static final Logger log = LoggerFactory.getLogger(CachedScriptsBeanDefinitionDecorator.class);
+
+    /**
+     * @see BeanDefinitionDecorator#decorate(Node, BeanDefinitionHolder, ParserContext)
+     */
+    @Override
+    public BeanDefinitionHolder decorate(Node node, BeanDefinitionHolder definition, ParserContext parserContext) {
+        Element element = (Element) node;
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("maxSize", Integer.parseInt(element.getAttribute("max-size")));
+        settings.put("maxWeight", Long.parseLong(element.getAttribute("max-weight")));
+        settings.put("ttl", Long.parseLong(element.getAttribute("ttl")));
+        settings.put("refreshAhead", Long.parseLong(element.getAttribute("refresh-ahead")));
+        return createCachingProvider(definition, parserContext.getRegistry(), settings);
+    }
+
+    /**
+     * Registers provider definition under target name and creates caching provider definition with provider's name.
+     *
+     * @param definition provider bean definition.
+     * @param registry   Spring bean definition registry.
+     * @param settings   {@link CachingScriptProvider} property values.
+     * @return caching provider definition, the caller is responsible for its registration.
+     */
+    public static BeanDefinitionHolder createCachingProvider(BeanDefinitionHolder definition, BeanDefinitionRegistry registry,
+                                                             Map<String, Object> settings) {
+        String targetName = TARGET_NAME_PREFIX + definition.getBeanName();
+        BeanDefinition target = definition.getBeanDefinition();
+
+        RootBeanDefinition providerFactory = new RootBeanDefinition(ObjectFactoryCreatingFactoryBean.class);
+        providerFactory.getPropertyValues().add("targetBeanName", targetName);
+        BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(CachingScriptProvider.class)
+                .addConstructorArgValue(providerFactory);
+        settings.forEach(builder::addPropertyValue);
+        AbstractBeanDefinition cachingProvider = builder.getBeanDefinition();
+        cachingProvider.setAutowireCandidate(target.isAutowireCandidate());
+        cachingProvider.setPrimary(target.isPrimary());
+        cachingProvider.setRole(target.getRole());
+
+        target.setAutowireCandidate(false);
+        target.setPrimary(false);
+        registry.registerBeanDefinition(targetName, target);
+        log.debug("Scripts of provider {} are cached: {}", definition.getBeanName(), settings);
+        return new BeanDefinitionHolder(cachingProvider, definition.getBeanName(), definition.getAliases());
+    }
+
+    /**
+     * Replaces definitions of provider beans annotated with {@link CachedScripts} with caching provider definitions.
+     * The annotation is looked up on {@code @Bean} factory methods, their return types and bean classes including
+     * their superclasses and interfaces. Classes are inspected by reading their metadata, bean classes are not loaded.
+     *
+     * @param registry Spring bean definition registry.
+     */
+    public static void decorateAnnotatedProviders(BeanDefinitionRegistry registry) {
+        MetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory();
+        for (String name : registry.getBeanDefinitionNames()) {
+            if (name.startsWith(TARGET_NAME_PREFIX)) {
+                continue;
+            }
+            BeanDefinition definition = registry.getBeanDefinition(name);
+            Map<String, Object> settings = findCachedScripts(definition, metadataReaderFactory);
+            if (settings != null) {
+                registry.removeBeanDefinition(name);
+                BeanDefinitionHolder cachingProvider = createCachingProvider(new BeanDefinitionHolder(definition, name), registry, settings);
+                registry.registerBeanDefinition(name, cachingProvider.getBeanDefinition());
+            }
+        }
+    }
+
+    private static Map<String, Object> findCachedScripts(BeanDefinition definition, MetadataReaderFactory metadataReaderFactory) {
+        if (definition instanceof AnnotatedBeanDefinition) {
+            MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                Map<String, Object> attributes = factoryMethod.getAnnotationAttributes(CachedScripts.class.getName());
+                return attributes != null ? attributes : findCachedScripts(factoryMethod.getReturnTypeName(), metadataReaderFactory);
+            }
+            return ((AnnotatedBeanDefinition) definition).getMetadata().getAnnotationAttributes(CachedScripts.class.getName());
+        }
+        return findCachedScripts(definition.getBeanClassName(), metadataReaderFactory);
+    }
+
+    private static Map<String, Object> findCachedScripts(String className, MetadataReaderFactory metadataReaderFactory) {
+        if (className == null || className.startsWith("java.")) {
+            return null;
+        }
+        try {
+            AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(className).getAnnotationMetadata();
+            Map<String, Object> attributes = metadata.getAnnotationAttributes(CachedScripts.class.getName());
+            if (attributes == null) {
+                attributes = findCachedScripts(metadata.getSuperClassName(), metadataReaderFactory);
+            }
+            String[] interfaceNames = metadata.getInterfaceNames();
+            for (int i = 0; attributes == null && i < interfaceNames.length; i++) {
+                attributes = findCachedScripts(interfaceNames[i], metadataReaderFactory);
+            }
+            return attributes;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.haulmont.scripting.repository.config;
+
+import java.io.Serializable;
+
+/**
+ * Struct like class to hold circuit breaker parameters of a scripted method.
+ *
+ * @see com.haulmont.scripting.repository.ScriptMethod#circuitBreakerWindow()
+ */
+@SuppressWarnings("serial")
+public class CircuitBreakerConfig implements Serializable {
+
+    public final int window;
+    public final int failureRate;
+    public final long slowCallDuration;
+    public final int slowCallRate;
+    public final long openDuration;
+    public final int halfOpenCalls;
+
+    public CircuitBreakerConfig(int window, int failureRate, long slowCallDuration, int slowCallRate, long openDuration, int halfOpenCalls) {
+        this.window = window;
+        this.failureRate = failureRate;
+        this.slowCallDuration = slowCallDuration;
+        this.slowCallRate = slowCallRate;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Creates circuit breaker configuration if it is enabled.
+     *
+     * @return configuration or null if the window size is not positive.
+     */
+    public static CircuitBreakerConfig create(int window, int failureRate, long slowCallDuration, int slowCallRate,
+                                              long openDuration, int halfOpenCalls) {
+        return window > 0
+                ? new CircuitBreakerConfig(window, failureRate, slowCallDuration, slowCallRate, openDuration, halfOpenCalls)
+                : null;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreakerConfig{" +
+                "window=" + window +
+                ", failureRate=" + failureRate +
+                ", slowCallDuration=" + slowCallDuration +
+                ", slowCallRate=" + slowCallRate +
+                ", openDuration=" + openDuration +
+                ", halfOpenCalls=" + halfOpenCalls +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.haulmont.scripting.repository.config;
+
+import java.io.Serializable;
+
+/**
+ * Struct like class to hold concurrency limit parameters of a scripted method.
+ *
+ * @see com.haulmont.scripting.repository.ScriptMethod#maxConcurrentCalls()
+ */
+@SuppressWarnings("serial")
+public class ConcurrencyLimitConfig implements Serializable {
+
+    public final int maxConcurrentCalls;
+    public final int maxWaitingCalls;
+    public final long maxWaitTime;
+    public final long latencyThreshold;
+
+    public ConcurrencyLimitConfig(int maxConcurrentCalls, int maxWaitingCalls, long maxWaitTime, long latencyThreshold) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = maxWaitingCalls;
+        this.maxWaitTime = maxWaitTime;
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    /**
+     * Creates concurrency limit configuration if it is enabled.
+     *
+     * @return configuration or null if the limit is not positive.
+     */
+    public static ConcurrencyLimitConfig create(int maxConcurrentCalls, int maxWaitingCalls, long maxWaitTime, long latencyThreshold) {
+        return maxConcurrentCalls > 0
+                ? new ConcurrencyLimitConfig(maxConcurrentCalls, maxWaitingCalls, maxWaitTime, latencyThreshold)
+                : null;
+    }
+
+    /**
+     * @return true if the limit adapts to observed latency.
+     */
+    public boolean isAdaptive() {
+        return latencyThreshold > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitConfig{" +
+                "maxConcurrentCalls=" + maxConcurrentCalls +
+                ", maxWaitingCalls=" + maxWaitingCalls +
+                ", maxWaitTime=" + maxWaitTime +
+                ", latencyThreshold=" + latencyThreshold +
+                '}';
+    }
+}
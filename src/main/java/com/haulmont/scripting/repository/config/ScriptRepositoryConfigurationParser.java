@@ -1,5 +1,6 @@
 package com.haulmont.scripting.repository.config;
 
+import com.haulmont.scripting.repository.ExecutionMode;
 import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,12 +75,33 @@ public class ScriptRepositoryConfigurationParser implements BeanDefinitionParser
         }
         List<Element> annotConfig = DomUtils.getChildElementsByTagName(annotConfigEl, "annotation-mapping");
         for (Element el : annotConfig) {
-            String providerBeanName = el.getAttribute("provider-bean-name");
-            String executorBeanName = el.getAttribute("evaluator-bean-name");
-            String description = el.getAttribute("description");
-            long timeout = Long.parseLong(el.getAttribute("timeout"));
             Class<? extends Annotation> annotationClass = (Class<? extends Annotation>)Class.forName(el.getAttribute("annotation-class"));
-            result.put(annotationClass, new AnnotationConfig(annotationClass, providerBeanName, executorBeanName, timeout, description));
+            AnnotationConfig config = AnnotationConfig.builder(annotationClass)
+                    .provider(el.getAttribute("provider-bean-name"))
+                    .evaluator(el.getAttribute("evaluator-bean-name"))
+                    .timeout(Long.parseLong(el.getAttribute("timeout")))
+                    .description(el.getAttribute("description"))
+                    .executor(el.getAttribute("executor-bean-name"))
+                    .executionMode(ExecutionMode.valueOf(el.getAttribute("execution-mode")))
+                    .memoizeSize(Integer.parseInt(el.getAttribute("memoize-size")))
+                    .memoizeTtl(Long.parseLong(el.getAttribute("memoize-ttl")))
+                    .memoizeFailures(Boolean.parseBoolean(el.getAttribute("memoize-failures")))
+                    .cpuBudget(Long.parseLong(el.getAttribute("cpu-budget")))
+                    .allocationBudget(Long.parseLong(el.getAttribute("allocation-budget")))
+                    .circuitBreaker(CircuitBreakerConfig.create(
+                            Integer.parseInt(el.getAttribute("circuit-breaker-window")),
+                            Integer.parseInt(el.getAttribute("circuit-breaker-failure-rate")),
+                            Long.parseLong(el.getAttribute("circuit-breaker-slow-call-duration")),
+                            Integer.parseInt(el.getAttribute("circuit-breaker-slow-call-rate")),
+                            Long.parseLong(el.getAttribute("circuit-breaker-open-duration")),
+                            Integer.parseInt(el.getAttribute("circuit-breaker-half-open-calls"))))
+                    .concurrencyLimit(ConcurrencyLimitConfig.create(
+                            Integer.parseInt(el.getAttribute("max-concurrent-calls")),
+                            Integer.parseInt(el.getAttribute("max-waiting-calls")),
+                            Long.parseLong(el.getAttribute("max-wait-time")),
+                            Long.parseLong(el.getAttribute("concurrency-latency-threshold"))))
+                    .build();
+            result.put(annotationClass, config);
         }
         return result;
     }
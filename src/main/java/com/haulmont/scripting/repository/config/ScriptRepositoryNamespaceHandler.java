@@ -3,17 +3,20 @@ package com.haulmont.scripting.repository.config;
 import org.springframework.beans.factory.xml.NamespaceHandlerSupport;
 
 /**
- * Registers parser for XML based configuration for script repositories.
+ * Registers parser for XML based configuration for script repositories and decorator for cached script providers.
  */
 public class ScriptRepositoryNamespaceHandler extends NamespaceHandlerSupport {
 
     public static final String SCRIPT_REPOSITORIES_TAG_NAME  = "script-repositories";
 
+    public static final String CACHED_SCRIPTS_TAG_NAME = "cached-scripts";
+
     /**
      * @see NamespaceHandlerSupport#init()
      */
     @Override
     public void init() {
         registerBeanDefinitionParser(SCRIPT_REPOSITORIES_TAG_NAME, new ScriptRepositoryConfigurationParser());
+        registerBeanDefinitionDecorator(CACHED_SCRIPTS_TAG_NAME, new CachedScriptsBeanDefinitionDecorator());
     }
 }
@@ -0,0 +1,12 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Reported when a scripted method is not executed because its circuit breaker is open after repeated failures
+ * or slow invocations.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
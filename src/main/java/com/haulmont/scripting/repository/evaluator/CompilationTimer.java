@@ -0,0 +1,61 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Collects script compilation time of the current thread's evaluation. Script repository starts the timer
+ * before calling an evaluator only when phase timings are requested, evaluators report compilation with
+ * {@link #recordCompilation(long)} which does nothing if no timer is active.
+ */
+public final class CompilationTimer {
+
+    private static final ThreadLocal<CompilationTimer> current = new ThreadLocal<>();
+
+    private long compileNanos;
+
+    private boolean compiled;
+
+    private CompilationTimer() {
+    }
+
+    /**
+     * Starts collecting compilation time in the current thread.
+     *
+     * @return new timer, it must be stopped in the same thread.
+     */
+    public static CompilationTimer start() {
+        CompilationTimer timer = new CompilationTimer();
+        current.set(timer);
+        return timer;
+    }
+
+    /**
+     * @return true if compilation time is collected in the current thread, so it is worth measuring.
+     */
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Adds compilation time to the current thread's timer, if any.
+     *
+     * @param nanos compilation time in nanoseconds.
+     */
+    public static void recordCompilation(long nanos) {
+        CompilationTimer timer = current.get();
+        if (timer != null) {
+            timer.compileNanos += nanos;
+            timer.compiled = true;
+        }
+    }
+
+    public void stop() {
+        current.remove();
+    }
+
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    public boolean isCompiled() {
+        return compiled;
+    }
+}
@@ -0,0 +1,149 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import com.haulmont.scripting.repository.provider.ScriptSourceVersions;
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.scripting.ScriptSource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bounded LRU cache for compiled scripts. Entries are keyed by the version of the script text, a content hash for most
+ * sources, so the same text returned by different {@link ScriptSource} instances is compiled only once. The hash of every source instance is
+ * remembered by {@link ScriptSourceVersions}, so the text of a source is not read again until
+ * {@link ScriptSource#isModified()} reports a change.
+ * Evicted scripts are passed to the eviction listener, so resources held for them can be released.
+ *
+ * @param <T> compiled script type.
+ */
+class CompiledScriptCache<T> {
+
+    private final Map<String, T> compiledScripts;
+
+    private final Consumer<T> evictionListener;
+
+    private volatile int maxSize;
+
+    CompiledScriptCache(int maxSize) {
+        this(maxSize, compiled -> {
+        });
+    }
+
+    /**
+     * @param maxSize          maximum cache size, zero disables caching.
+     * @param evictionListener called for every compiled script that is evicted, replaced or not cached at all.
+     */
+    CompiledScriptCache(int maxSize, Consumer<T> evictionListener) {
+        this.maxSize = maxSize;
+        this.evictionListener = evictionListener;
+        this.compiledScripts = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                if (size() > CompiledScriptCache.this.maxSize) {
+                    evictionListener.accept(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns compiled script for the source, compiles and caches it if needed.
+     *
+     * @param source   script source.
+     * @param compiler function that compiles script text.
+     * @return compiled script.
+     * @throws ScriptCompilationException if script text cannot be read or compiled.
+     */
+    T get(ScriptSource source, ScriptCompiler<T> compiler) throws ScriptCompilationException {
+        String key = ScriptSourceVersions.getRememberedVersion(source);
+        if (key != null && !source.isModified()) {
+            T compiled = getCompiled(key);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        String scriptText;
+        try {
+            scriptText = source.getScriptAsString();
+        } catch (IOException e) {
+            throw new ScriptCompilationException(source, "Cannot read script text", e);
+        }
+        key = ScriptSourceVersions.getVersion(source, scriptText);
+        T compiled = getCompiled(key);
+        if (compiled == null) {
+            boolean timed = CompilationTimer.isActive();
+            long compileStart = timed ? System.nanoTime() : 0L;
+            try {
+                compiled = compiler.compile(scriptText);
+            } catch (ScriptCompilationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ScriptCompilationException(source, "Error compiling script", e);
+            }
+            if (timed) {
+                CompilationTimer.recordCompilation(System.nanoTime() - compileStart);
+            }
+            synchronized (compiledScripts) {
+                //The same text may have been compiled concurrently, the first compiled script is kept
+                T existing = compiledScripts.putIfAbsent(key, compiled);
+                if (existing != null) {
+                    evictionListener.accept(compiled);
+                    compiled = existing;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    private T getCompiled(String key) {
+        synchronized (compiledScripts) {
+            return compiledScripts.get(key);
+        }
+    }
+
+    /**
+     * Sets maximum number of compiled scripts kept in the cache. Least recently used scripts are evicted first.
+     *
+     * @param maxSize maximum cache size, zero disables caching.
+     */
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        synchronized (compiledScripts) {
+            while (compiledScripts.size() > maxSize) {
+                String eldest = compiledScripts.keySet().iterator().next();
+                evictionListener.accept(compiledScripts.remove(eldest));
+            }
+        }
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    int size() {
+        synchronized (compiledScripts) {
+            return compiledScripts.size();
+        }
+    }
+
+    void clear() {
+        synchronized (compiledScripts) {
+            compiledScripts.values().forEach(evictionListener);
+            compiledScripts.clear();
+        }
+    }
+
+    /**
+     * Compiles script text into its executable form.
+     *
+     * @param <T> compiled script type.
+     */
+    @FunctionalInterface
+    interface ScriptCompiler<T> {
+        T compile(String scriptText) throws Exception;
+    }
+}
@@ -0,0 +1,21 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.scripting.ScriptEvaluator;
+import org.springframework.scripting.ScriptSource;
+
+/**
+ * Script evaluator that can compile a script in advance without evaluating it, so the first evaluation
+ * does not pay for compilation.
+ */
+public interface CompilingScriptEvaluator extends ScriptEvaluator {
+
+    /**
+     * Compiles script and puts it into the evaluator's compiled scripts cache.
+     *
+     * @param script script source.
+     * @throws ScriptCompilationException if script cannot be compiled.
+     */
+    void compile(ScriptSource script) throws ScriptCompilationException;
+
+}
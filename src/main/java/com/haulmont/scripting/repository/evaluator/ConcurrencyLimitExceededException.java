@@ -0,0 +1,12 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Reported when a scripted method is not executed because the concurrency limit of the method or its repository
+ * is reached and there is no room to wait for a free slot.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Defines how JSR-223 script engines are reused between script evaluations.
+ */
+public enum EnginePoolMode {
+
+    /**
+     * New engine is created for every evaluation.
+     */
+    NONE,
+
+    /**
+     * Every thread gets its own engine instance.
+     */
+    THREAD_LOCAL,
+
+    /**
+     * Bounded pool of engines, an engine is checked out for an evaluation and returned afterwards.
+     */
+    POOLED
+
+}
@@ -2,7 +2,8 @@ package com.haulmont.scripting.repository.evaluator;
 
 public enum EvaluationStatus {
     SUCCESS(true),
-    FAILURE(false);
+    FAILURE(false),
+    REJECTED(false);
 
     private final boolean successful;
 
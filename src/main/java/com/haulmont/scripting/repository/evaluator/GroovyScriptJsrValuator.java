@@ -1,9 +1,19 @@
 package com.haulmont.scripting.repository.evaluator;
 
+import groovy.lang.GroovyClassLoader;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.jsr223.GroovyScriptEngineImpl;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.script.ScriptEngine;
 
 /**
  * Evaluates Groovy script using JSR-223 javax.script API and bindings.
+ * Scripts are compiled with {@link ThreadInterrupt} transformation, so a timed out script
+ * stops when its thread is interrupted.
  */
 @Component("groovyJsrEvaluator")
 public class GroovyScriptJsrValuator extends Jsr233Evaluator {
@@ -11,4 +21,11 @@ public class GroovyScriptJsrValuator extends Jsr233Evaluator {
     protected String getEngineName() {
         return "groovy";
     }
+
+    @Override
+    protected ScriptEngine createEngine() {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
+        return new GroovyScriptEngineImpl(new GroovyClassLoader(ClassUtils.getDefaultClassLoader(), configuration));
+    }
 }
@@ -0,0 +1,114 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates Groovy scripts without JSR-223 layer. Script text is compiled once into a {@link Script} class,
+ * every evaluation creates a new script instance with its own {@link Binding}. Compiled classes are cached
+ * by script source and script text hash.
+ * <p>
+ * Every script is compiled with its own {@link GroovyClassLoader}, since a class loader keeps all classes it has
+ * defined, and Groovy meta class of an evicted class is removed. So a class evicted from the cache or replaced
+ * by an edited script can be unloaded together with its loader.
+ * <p>
+ * Scripts are compiled with {@link ThreadInterrupt} transformation, so loops and closures check the thread's interrupt
+ * flag and a timed out script stops when its thread is interrupted.
+ */
+@Component("groovyNativeEvaluator")
+public class GroovyScriptNativeEvaluator implements CompilingScriptEvaluator {
+
+    private static final Logger log = LoggerFactory.getLogger(GroovyScriptNativeEvaluator.class);
+
+    private static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final String SCRIPT_CODE_BASE = "/groovy/script";
+
+    private final CompiledScriptCache<Class<?>> scriptClasses = new CompiledScriptCache<>(DEFAULT_CACHE_SIZE, InvokerHelper::removeClass);
+
+    private final AtomicLong scriptCounter = new AtomicLong();
+
+    private final CompilerConfiguration compilerConfiguration;
+
+    public GroovyScriptNativeEvaluator() {
+        compilerConfiguration = createCompilerConfiguration();
+    }
+
+    @Override
+    public Object evaluate(ScriptSource script) throws ScriptCompilationException {
+        return eval(script, new HashMap<>());
+    }
+
+    @Override
+    public Object evaluate(ScriptSource script, Map<String, Object> arguments) throws ScriptCompilationException {
+        return eval(script, arguments);
+    }
+
+    @Override
+    public void compile(ScriptSource script) throws ScriptCompilationException {
+        scriptClasses.get(script, this::compile);
+    }
+
+    private Object eval(ScriptSource script, Map<String, Object> parameters) {
+        log.trace("Script bindings: {}", parameters);
+        Class<?> scriptClass = scriptClasses.get(script, this::compile);
+        Script scriptInstance = InvokerHelper.createScript(scriptClass, new Binding(parameters));
+        try {
+            return scriptInstance.run();
+        } finally {
+            if (scriptClasses.getMaxSize() == 0) {
+                //The class is not cached, its meta class created by the run is removed as well
+                InvokerHelper.removeClass(scriptClass);
+            }
+        }
+    }
+
+    private Class<?> compile(String scriptText) {
+        log.trace("Compiling script: \n {} \n", scriptText);
+        String scriptName = "Script" + scriptCounter.incrementAndGet() + ".groovy";
+        GroovyClassLoader classLoader = new GroovyClassLoader(ClassUtils.getDefaultClassLoader(), compilerConfiguration);
+        return classLoader.parseClass(new GroovyCodeSource(scriptText, scriptName, SCRIPT_CODE_BASE), false);
+    }
+
+    /**
+     * Creates compiler configuration for all scripts evaluated by this evaluator.
+     *
+     * @return compiler configuration.
+     */
+    protected CompilerConfiguration createCompilerConfiguration() {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
+        return configuration;
+    }
+
+    /**
+     * Sets maximum number of compiled script classes kept in memory, least recently used classes are evicted first.
+     *
+     * @param cacheSize maximum cache size, zero disables caching.
+     */
+    @Value("${script.evaluator.cache.size:" + DEFAULT_CACHE_SIZE + "}")
+    public void setCacheSize(int cacheSize) {
+        scriptClasses.setMaxSize(cacheSize);
+    }
+
+    public int getCacheSize() {
+        return scriptClasses.getMaxSize();
+    }
+}
@@ -0,0 +1,202 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import groovy.transform.ThreadInterrupt;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates Groovy scripts compiled with {@link CompileStatic}. Script variables are declared with the types
+ * of scripted method parameters and the script result is checked against method return type at compile time,
+ * so a script that uses unknown variables, calls missing methods or returns a value of a wrong type
+ * fails to compile instead of failing at runtime. Statically compiled scripts do not use dynamic dispatch,
+ * which makes numeric calculations much faster.
+ * <p>
+ * A script is compiled separately for every signature it is used with. If the evaluator is called without
+ * a signature, all variables are declared as {@code Object}. Both the number of signatures and the number of classes
+ * per signature are bounded. Every script is compiled with its own {@link GroovyClassLoader} and Groovy meta class
+ * of an evicted class is removed, so evicted classes are unloaded.
+ */
+@Component("groovyStaticEvaluator")
+public class GroovyScriptStaticEvaluator implements TypedScriptEvaluator {
+
+    private static final Logger log = LoggerFactory.getLogger(GroovyScriptStaticEvaluator.class);
+
+    private static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final int DEFAULT_SIGNATURE_CACHE_SIZE = 256;
+
+    private static final String SCRIPT_CODE_BASE = "/groovy/script";
+
+    private final Map<ScriptSignature, SignatureScripts> scripts; //guarded by itself
+
+    private volatile int signatureCacheSize = DEFAULT_SIGNATURE_CACHE_SIZE;
+
+    private final AtomicLong scriptCounter = new AtomicLong();
+
+    private volatile int cacheSize = DEFAULT_CACHE_SIZE;
+
+    public GroovyScriptStaticEvaluator() {
+        scripts = new LinkedHashMap<ScriptSignature, SignatureScripts>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScriptSignature, SignatureScripts> eldest) {
+                if (size() > signatureCacheSize) {
+                    eldest.getValue().classes.clear();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Object evaluate(ScriptSource script) throws ScriptCompilationException {
+        return evaluate(script, Collections.emptyMap());
+    }
+
+    @Override
+    public Object evaluate(ScriptSource script, Map<String, Object> arguments) throws ScriptCompilationException {
+        return evaluate(script, arguments, createUntypedSignature(arguments));
+    }
+
+    @Override
+    public Object evaluate(ScriptSource script, Map<String, Object> arguments, ScriptSignature signature) throws ScriptCompilationException {
+        log.trace("Script bindings: {}", arguments);
+        Class<?> scriptClass = getScripts(signature).get(script);
+        Script scriptInstance = InvokerHelper.createScript(scriptClass, new Binding(arguments));
+        try {
+            return scriptInstance.run();
+        } finally {
+            if (cacheSize == 0 || signatureCacheSize == 0) {
+                //The class is not cached, its meta class created by the run is removed as well
+                InvokerHelper.removeClass(scriptClass);
+            }
+        }
+    }
+
+    @Override
+    public void compile(ScriptSource script, ScriptSignature signature) throws ScriptCompilationException {
+        getScripts(signature).get(script);
+    }
+
+    private ScriptSignature createUntypedSignature(Map<String, Object> arguments) {
+        String[] names = new TreeSet<>(arguments.keySet()).toArray(new String[0]);
+        Class<?>[] types = new Class<?>[names.length];
+        Arrays.fill(types, Object.class);
+        return new ScriptSignature(names, types, Object.class);
+    }
+
+    private SignatureScripts getScripts(ScriptSignature signature) {
+        synchronized (scripts) {
+            SignatureScripts signatureScripts = scripts.get(signature);
+            if (signatureScripts == null) {
+                signatureScripts = new SignatureScripts(signature);
+                scripts.put(signature, signatureScripts);
+            }
+            return signatureScripts;
+        }
+    }
+
+    /**
+     * Creates compiler configuration for scripts with the signature.
+     *
+     * @param signature script variables and result types.
+     * @return compiler configuration.
+     */
+    protected CompilerConfiguration createCompilerConfiguration(ScriptSignature signature) {
+        CompilerConfiguration configuration = new CompilerConfiguration();
+        configuration.addCompilationCustomizers(
+                new TypedScriptCustomizer(signature),
+                new ASTTransformationCustomizer(ThreadInterrupt.class),
+                new ASTTransformationCustomizer(CompileStatic.class));
+        return configuration;
+    }
+
+    /**
+     * Sets maximum number of compiled script classes kept in memory for every signature, least recently used
+     * classes are evicted first.
+     *
+     * @param cacheSize maximum cache size, zero disables caching.
+     */
+    @Value("${script.evaluator.cache.size:" + DEFAULT_CACHE_SIZE + "}")
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        synchronized (scripts) {
+            scripts.values().forEach(signatureScripts -> signatureScripts.classes.setMaxSize(cacheSize));
+        }
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets maximum number of signatures compiled scripts are kept for, scripts of the least recently used
+     * signature are evicted first. Every distinct set of variable names counts as a signature for untyped evaluation.
+     *
+     * @param signatureCacheSize maximum number of signatures, zero disables caching.
+     */
+    @Value("${script.evaluator.signature.cache.size:" + DEFAULT_SIGNATURE_CACHE_SIZE + "}")
+    public void setSignatureCacheSize(int signatureCacheSize) {
+        this.signatureCacheSize = signatureCacheSize;
+        synchronized (scripts) {
+            Iterator<SignatureScripts> iterator = scripts.values().iterator();
+            while (scripts.size() > signatureCacheSize && iterator.hasNext()) {
+                iterator.next().classes.clear();
+                iterator.remove();
+            }
+        }
+    }
+
+    public int getSignatureCacheSize() {
+        return signatureCacheSize;
+    }
+
+    /**
+     * Script classes compiled for one signature, since compiler configuration depends on the signature.
+     */
+    private class SignatureScripts {
+
+        private final ScriptSignature signature;
+
+        private final CompilerConfiguration compilerConfiguration;
+
+        private final CompiledScriptCache<Class<?>> classes = new CompiledScriptCache<>(cacheSize, InvokerHelper::removeClass);
+
+        SignatureScripts(ScriptSignature signature) {
+            this.signature = signature;
+            this.compilerConfiguration = createCompilerConfiguration(signature);
+        }
+
+        Class<?> get(ScriptSource script) {
+            return classes.get(script, this::compile);
+        }
+
+        private Class<?> compile(String scriptText) {
+            log.trace("Compiling script for {}: \n {} \n", signature, scriptText);
+            String scriptName = "StaticScript" + scriptCounter.incrementAndGet() + ".groovy";
+            GroovyClassLoader classLoader = new GroovyClassLoader(ClassUtils.getDefaultClassLoader(), compilerConfiguration);
+            return classLoader.parseClass(new GroovyCodeSource(scriptText, scriptName, SCRIPT_CODE_BASE), false);
+        }
+    }
+}
@@ -1,29 +1,59 @@
 package com.haulmont.scripting.repository.evaluator;
 
+import com.haulmont.scripting.repository.evaluator.ScriptEnginePool.PooledEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scripting.ScriptCompilationException;
-import org.springframework.scripting.ScriptEvaluator;
 import org.springframework.scripting.ScriptSource;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
+import javax.script.SimpleScriptContext;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 
 /**
  * Evaluates scripts using JSR-223 javax.script API and bindings.
+ * <p>
+ * Script engines are reused according to {@link EnginePoolMode}, every evaluation gets a fresh {@link ScriptContext}
+ * so evaluations do not share bindings. If the engine supports {@link Compilable}, compiled scripts are cached
+ * by script text hash, so the same script is not parsed and compiled on every evaluation. Compiled scripts of
+ * thread-safe engines are shared between all evaluations, other engines keep their own compiled scripts.
  */
-public abstract class Jsr233Evaluator implements ScriptEvaluator {
+public abstract class Jsr233Evaluator implements CompilingScriptEvaluator {
 
     private static final Logger log = LoggerFactory.getLogger(Jsr233Evaluator.class);
 
+    private static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final int DEFAULT_POOL_SIZE = 16;
+
+    private static final long DEFAULT_POOL_WAIT_TIMEOUT = 1_000L;
+
     private final ScriptEngineManager manager = new ScriptEngineManager();
 
+    private final CompiledScriptCache<CompiledScript> compiledScripts = new CompiledScriptCache<>(DEFAULT_CACHE_SIZE);
+
+    private EnginePoolMode poolMode = EnginePoolMode.POOLED;
+
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    private long poolWaitTimeout = DEFAULT_POOL_WAIT_TIMEOUT;
+
+    private volatile ScriptEnginePool enginePool;
+
+    private volatile boolean sharedCompiledScripts;
+
     @Override
     public Object evaluate(ScriptSource script) throws ScriptCompilationException {
         return eval(script, Collections.emptyMap());
@@ -34,19 +64,192 @@ public abstract class Jsr233Evaluator implements ScriptEvaluator {
         return eval(script, arguments);
     }
 
+    /**
+     * Compiles script if the engine supports compilation and compiled scripts are cached. If compiled scripts
+     * are not shared, the script is compiled by one of pooled engines only.
+     */
+    @Override
+    public void compile(ScriptSource script) throws ScriptCompilationException {
+        ScriptEnginePool pool = getEnginePool();
+        if (sharedCompiledScripts) {
+            compiledScripts.get(script, scriptText -> compile(pool, scriptText));
+            return;
+        }
+        PooledEngine pooledEngine = pool.acquire();
+        try {
+            ScriptEngine scriptEngine = pooledEngine.engine;
+            if (scriptEngine instanceof Compilable && pooledEngine.compiledScripts.getMaxSize() > 0) {
+                pooledEngine.compiledScripts.get(script, scriptText -> ((Compilable) scriptEngine).compile(scriptText));
+            }
+        } finally {
+            pool.release(pooledEngine);
+        }
+    }
+
     private Object eval(ScriptSource script, Map<String, Object> parameters) {
-        String engineName = getEngineName();
-        ScriptEngine scriptEngine = manager.getEngineByName(engineName);
+        ScriptEnginePool pool = getEnginePool();
         log.trace("Script bindings: {}", parameters);
+        //Engines may store their own objects in engine scope, so caller's map is copied
+        Bindings bindings = parameters instanceof ParameterBindings
+                ? ((ParameterBindings) parameters).copy()
+                : new SimpleBindings(new HashMap<>(parameters));
         try {
-            String scriptAsString = script.getScriptAsString();
-            log.trace("Script text ({}): \n {} \n", engineName, scriptAsString);
-            return scriptEngine.eval(scriptAsString, new SimpleBindings(parameters));
+            if (sharedCompiledScripts) {
+                CompiledScript compiledScript = compiledScripts.get(script, scriptText -> compile(pool, scriptText));
+                return compiledScript.eval(createContext(compiledScript.getEngine(), bindings));
+            }
+            PooledEngine pooledEngine = pool.acquire();
+            try {
+                ScriptEngine scriptEngine = pooledEngine.engine;
+                ScriptContext context = createContext(scriptEngine, bindings);
+                if (scriptEngine instanceof Compilable && pooledEngine.compiledScripts.getMaxSize() > 0) {
+                    CompiledScript compiledScript = pooledEngine.compiledScripts.get(script, scriptText -> {
+                        log.trace("Compiling script ({}): \n {} \n", getEngineName(), scriptText);
+                        return ((Compilable) scriptEngine).compile(scriptText);
+                    });
+                    return compiledScript.eval(context);
+                }
+                String scriptAsString = script.getScriptAsString();
+                log.trace("Script text ({}): \n {} \n", getEngineName(), scriptAsString);
+                return scriptEngine.eval(scriptAsString, context);
+            } finally {
+                pool.release(pooledEngine);
+            }
         } catch (IOException | ScriptException e) {
             throw new ScriptCompilationException("Error executing script", e);
         }
     }
 
+    private CompiledScript compile(ScriptEnginePool pool, String scriptText) throws ScriptException {
+        log.trace("Compiling script ({}): \n {} \n", getEngineName(), scriptText);
+        PooledEngine pooledEngine = pool.acquire();
+        try {
+            return ((Compilable) pooledEngine.engine).compile(scriptText);
+        } finally {
+            pool.release(pooledEngine);
+        }
+    }
+
+    /**
+     * Creates evaluation context isolated from other evaluations that use the same engine.
+     *
+     * @param scriptEngine engine that will evaluate the script.
+     * @param bindings     script parameters.
+     * @return new script context.
+     */
+    private ScriptContext createContext(ScriptEngine scriptEngine, Bindings bindings) {
+        ScriptContext context = new SimpleScriptContext();
+        context.setBindings(bindings, ScriptContext.ENGINE_SCOPE);
+        context.setBindings(scriptEngine.getBindings(ScriptContext.GLOBAL_SCOPE), ScriptContext.GLOBAL_SCOPE);
+        return context;
+    }
+
+    private ScriptEnginePool getEnginePool() {
+        ScriptEnginePool pool = enginePool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = enginePool;
+                if (pool == null) {
+                    pool = new ScriptEnginePool(this::createEngine, poolMode, poolSize, poolWaitTimeout, compiledScripts.getMaxSize());
+                    PooledEngine pooledEngine = pool.acquire();
+                    sharedCompiledScripts = isCompiledScriptShareable(pooledEngine.engine);
+                    pool.release(pooledEngine);
+                    log.debug("Created {} engine pool: mode {}, size {}, shared compiled scripts {}",
+                            getEngineName(), poolMode, poolSize, sharedCompiledScripts);
+                    enginePool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Compiled script keeps a reference to the engine that compiled it, so it can be shared between
+     * evaluations only if the engine allows concurrent use (JSR-223 "THREADING" parameter is set).
+     *
+     * @param scriptEngine script engine.
+     * @return true if compiled scripts from this engine can be shared.
+     */
+    private boolean isCompiledScriptShareable(ScriptEngine scriptEngine) {
+        return compiledScripts.getMaxSize() > 0
+                && scriptEngine instanceof Compilable
+                && scriptEngine.getFactory().getParameter("THREADING") != null;
+    }
+
+    /**
+     * Creates new script engine instance.
+     *
+     * @return script engine.
+     * @throws ScriptEvaluationException if engine is not available.
+     */
+    protected ScriptEngine createEngine() {
+        ScriptEngine scriptEngine = manager.getEngineByName(getEngineName());
+        if (scriptEngine == null) {
+            throw new ScriptEvaluationException(String.format("Script engine %s is not available", getEngineName()));
+        }
+        return scriptEngine;
+    }
+
+    /**
+     * Sets maximum number of compiled scripts kept in memory, least recently used scripts are evicted first.
+     *
+     * @param cacheSize maximum cache size, zero disables compiled scripts caching.
+     */
+    @Value("${script.evaluator.cache.size:" + DEFAULT_CACHE_SIZE + "}")
+    public void setCacheSize(int cacheSize) {
+        compiledScripts.setMaxSize(cacheSize);
+        enginePool = null;
+    }
+
+    public int getCacheSize() {
+        return compiledScripts.getMaxSize();
+    }
+
+    /**
+     * Sets how script engines are reused between evaluations.
+     *
+     * @param poolMode engine reuse mode.
+     */
+    @Value("${script.evaluator.engine.pool.mode:POOLED}")
+    public void setPoolMode(EnginePoolMode poolMode) {
+        this.poolMode = poolMode;
+        enginePool = null;
+    }
+
+    public EnginePoolMode getPoolMode() {
+        return poolMode;
+    }
+
+    /**
+     * Sets maximum number of engines for {@link EnginePoolMode#POOLED} mode.
+     *
+     * @param poolSize maximum number of engines.
+     */
+    @Value("${script.evaluator.engine.pool.size:" + DEFAULT_POOL_SIZE + "}")
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        enginePool = null;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Sets time to wait for a free engine in {@link EnginePoolMode#POOLED} mode.
+     *
+     * @param poolWaitTimeout wait timeout in milliseconds.
+     */
+    @Value("${script.evaluator.engine.pool.wait.timeout:" + DEFAULT_POOL_WAIT_TIMEOUT + "}")
+    public void setPoolWaitTimeout(long poolWaitTimeout) {
+        this.poolWaitTimeout = poolWaitTimeout;
+        enginePool = null;
+    }
+
+    public long getPoolWaitTimeout() {
+        return poolWaitTimeout;
+    }
+
     protected abstract String getEngineName();
 
 }
@@ -0,0 +1,317 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import javax.script.Bindings;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Script bindings backed by method arguments array. Parameter names are resolved to argument slots with
+ * {@link Layout} that is computed once per method and shared by all invocations, so binding arguments does not
+ * allocate a hash map per call. Can be used both as JSR-223 {@link Bindings} and as Groovy binding variables.
+ * <p>
+ * The arguments array is not copied: the first write to a parameter slot copies it, so scripts and engines
+ * never change the caller's array. Variables that are not parameters are kept in a separate map created on demand.
+ * Not thread-safe, the same as the script binding it backs.
+ */
+public final class ParameterBindings extends AbstractMap<String, Object> implements Bindings {
+
+    private static final Object REMOVED = new Object();
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final Layout layout;
+
+    private Object[] values;
+
+    private boolean valuesCopied;
+
+    private Map<String, Object> extraVariables; //variables that are not method parameters, created on first put
+
+    private Set<Entry<String, Object>> entrySet;
+
+    private ParameterBindings(Layout layout, Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Creates bindings that share parameter values with these bindings until either of them is changed.
+     * Variables that are not parameters are copied.
+     *
+     * @return new bindings.
+     */
+    public ParameterBindings copy() {
+        ParameterBindings copy = new ParameterBindings(layout, values);
+        //Both instances copy the array on their first write
+        valuesCopied = false;
+        if (extraVariables != null) {
+            copy.extraVariables = new LinkedHashMap<>(extraVariables);
+        }
+        return copy;
+    }
+
+    @Override
+    public Object get(Object key) {
+        checkKey(key);
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            Object value = values[slot];
+            return value != REMOVED ? value : null;
+        }
+        return extraVariables != null ? extraVariables.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        checkKey(key);
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            return values[slot] != REMOVED;
+        }
+        return extraVariables != null && extraVariables.containsKey(key);
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        checkKey(name);
+        int slot = layout.slotOf(name);
+        if (slot >= 0) {
+            Object previous = values[slot];
+            writableValues()[slot] = value;
+            return previous != REMOVED ? previous : null;
+        }
+        if (extraVariables == null) {
+            extraVariables = new LinkedHashMap<>();
+        }
+        return extraVariables.put(name, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> toMerge) {
+        Objects.requireNonNull(toMerge, "Map must not be null");
+        for (Entry<? extends String, ?> entry : toMerge.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        checkKey(key);
+        int slot = layout.slotOf(key);
+        if (slot >= 0) {
+            Object previous = values[slot];
+            if (previous == REMOVED) {
+                return null;
+            }
+            writableValues()[slot] = REMOVED;
+            return previous;
+        }
+        return extraVariables != null ? extraVariables.remove(key) : null;
+    }
+
+    @Override
+    public int size() {
+        int size = extraVariables != null ? extraVariables.size() : 0;
+        for (Object value : values) {
+            if (value != REMOVED) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private Object[] writableValues() {
+        if (!valuesCopied) {
+            values = values.clone();
+            valuesCopied = true;
+        }
+        return values;
+    }
+
+    private void checkKey(Object key) {
+        Objects.requireNonNull(key, "Key must not be null");
+        if (!(key instanceof String)) {
+            throw new ClassCastException("Key should be a String");
+        }
+        if (((String) key).isEmpty()) {
+            throw new IllegalArgumentException("Key must not be empty");
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return ParameterBindings.this.size();
+        }
+    }
+
+    /**
+     * Iterates over present parameter slots first, then over other variables.
+     */
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int nextSlot = findSlot(0);
+
+        private int lastSlot = -1;
+
+        private Iterator<Entry<String, Object>> extraIterator;
+
+        private int findSlot(int from) {
+            int slot = from;
+            while (slot < values.length && values[slot] == REMOVED) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextSlot < values.length) {
+                return true;
+            }
+            if (extraIterator == null) {
+                extraIterator = extraVariables != null
+                        ? extraVariables.entrySet().iterator()
+                        : Collections.emptyIterator();
+            }
+            return extraIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSlot < values.length) {
+                lastSlot = nextSlot;
+                nextSlot = findSlot(nextSlot + 1);
+                return new SlotEntry(lastSlot);
+            }
+            lastSlot = -1;
+            return extraIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (lastSlot >= 0) {
+                writableValues()[lastSlot] = REMOVED;
+                lastSlot = -1;
+            } else if (extraIterator != null) {
+                extraIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class SlotEntry implements Entry<String, Object> {
+
+        private final int slot;
+
+        SlotEntry(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return layout.names[slot];
+        }
+
+        @Override
+        public Object getValue() {
+            Object value = values[slot];
+            return value != REMOVED ? value : null;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = getValue();
+            writableValues()[slot] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * Parameter names of a method and their argument slots, immutable and shared by all invocations of the method.
+     */
+    public static final class Layout {
+
+        private final String[] names;
+
+        private final Map<String, Integer> slots;
+
+        /**
+         * @param names parameter names in declaration order.
+         */
+        public Layout(String[] names) {
+            this.names = names.clone();
+            Map<String, Integer> slots = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                if (slots.put(names[i], i) != null) {
+                    throw new IllegalArgumentException(String.format("Duplicate parameter name: %s", names[i]));
+                }
+            }
+            this.slots = slots;
+        }
+
+        /**
+         * Creates bindings backed by the arguments array, the array is not copied.
+         *
+         * @param args actual argument values in declaration order, may be null if there are no parameters.
+         * @return parameter name - value bindings.
+         */
+        public ParameterBindings bind(Object[] args) {
+            int length = args != null ? args.length : 0;
+            if (names.length != length) {
+                throw new IllegalArgumentException(String.format("Parameters and args must be the same length. Parameters: %d args: %d", names.length, length));
+            }
+            return new ParameterBindings(this, args != null ? args : NO_VALUES);
+        }
+
+        int slotOf(Object name) {
+            Integer slot = slots.get(name);
+            return slot != null ? slot : -1;
+        }
+    }
+}
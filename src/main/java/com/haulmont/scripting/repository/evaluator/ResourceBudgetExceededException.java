@@ -0,0 +1,22 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Thrown when a scripted method invocation consumes more CPU time or allocates more memory than its budget allows.
+ * The evaluation is interrupted, the same way as on timeout.
+ */
+public class ResourceBudgetExceededException extends RuntimeException {
+
+    private final ScriptResourceUsage usage;
+
+    public ResourceBudgetExceededException(String message, ScriptResourceUsage usage) {
+        super(message);
+        this.usage = usage;
+    }
+
+    /**
+     * @return resources consumed when the budget violation was detected.
+     */
+    public ScriptResourceUsage getUsage() {
+        return usage;
+    }
+}
@@ -0,0 +1,132 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps script engines for reuse according to {@link EnginePoolMode}. Every engine has its own compiled scripts
+ * cache, since compiled scripts of engines that are not thread-safe cannot be shared.
+ */
+class ScriptEnginePool {
+
+    private final Supplier<ScriptEngine> engineFactory;
+
+    private final EnginePoolMode mode;
+
+    private final int poolSize;
+
+    private final long waitTimeout;
+
+    private final int cacheSize;
+
+    private final BlockingQueue<PooledEngine> idleEngines;
+
+    private final AtomicInteger createdEngines = new AtomicInteger();
+
+    private final ThreadLocal<PooledEngine> threadEngines;
+
+    /**
+     * Creates engine pool.
+     *
+     * @param engineFactory creates new engine instances.
+     * @param mode          engine reuse mode.
+     * @param poolSize      maximum number of engines in {@link EnginePoolMode#POOLED} mode.
+     * @param waitTimeout   time in milliseconds to wait for an engine if all engines are checked out.
+     * @param cacheSize     compiled scripts cache size for every engine.
+     */
+    ScriptEnginePool(Supplier<ScriptEngine> engineFactory, EnginePoolMode mode, int poolSize, long waitTimeout, int cacheSize) {
+        if (mode == EnginePoolMode.POOLED && poolSize <= 0) {
+            throw new IllegalArgumentException(String.format("Engine pool size must be positive: %d", poolSize));
+        }
+        this.engineFactory = engineFactory;
+        this.mode = mode;
+        this.poolSize = poolSize;
+        this.waitTimeout = waitTimeout;
+        this.cacheSize = cacheSize;
+        this.idleEngines = mode == EnginePoolMode.POOLED ? new ArrayBlockingQueue<>(poolSize) : null;
+        this.threadEngines = mode == EnginePoolMode.THREAD_LOCAL ? ThreadLocal.withInitial(this::createEngine) : null;
+    }
+
+    /**
+     * Gets engine for exclusive use, it must be returned using {@link #release(PooledEngine)}.
+     *
+     * @return script engine.
+     * @throws ScriptEvaluationException if no engine became available during wait timeout.
+     */
+    PooledEngine acquire() {
+        switch (mode) {
+            case THREAD_LOCAL:
+                return threadEngines.get();
+            case POOLED:
+                return acquirePooled();
+            default:
+                return createEngine();
+        }
+    }
+
+    private PooledEngine acquirePooled() {
+        PooledEngine engine = idleEngines.poll();
+        if (engine != null) {
+            return engine;
+        }
+        if (createdEngines.incrementAndGet() <= poolSize) {
+            try {
+                return createEngine();
+            } catch (RuntimeException e) {
+                createdEngines.decrementAndGet();
+                throw e;
+            }
+        }
+        createdEngines.decrementAndGet();
+        try {
+            engine = idleEngines.poll(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScriptEvaluationException("Interrupted while waiting for script engine", e);
+        }
+        if (engine == null) {
+            throw new ScriptEvaluationException(
+                    String.format("No script engine available in %d ms, pool size: %d", waitTimeout, poolSize));
+        }
+        return engine;
+    }
+
+    /**
+     * Returns engine to the pool.
+     *
+     * @param engine engine taken by {@link #acquire()}.
+     */
+    void release(PooledEngine engine) {
+        if (mode == EnginePoolMode.POOLED) {
+            idleEngines.offer(engine);
+        }
+    }
+
+    EnginePoolMode getMode() {
+        return mode;
+    }
+
+    private PooledEngine createEngine() {
+        return new PooledEngine(engineFactory.get(), mode == EnginePoolMode.NONE ? 0 : cacheSize);
+    }
+
+    /**
+     * Engine instance with its own compiled scripts.
+     */
+    static class PooledEngine {
+
+        final ScriptEngine engine;
+
+        final CompiledScriptCache<CompiledScript> compiledScripts;
+
+        PooledEngine(ScriptEngine engine, int cacheSize) {
+            this.engine = engine;
+            this.compiledScripts = new CompiledScriptCache<>(cacheSize);
+        }
+    }
+}
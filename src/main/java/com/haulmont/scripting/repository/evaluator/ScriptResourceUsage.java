@@ -0,0 +1,39 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * CPU time and memory consumed by the thread that executed a scripted method, including script fetching
+ * and compilation. A value is negative if the JVM does not support its measurement.
+ */
+public class ScriptResourceUsage {
+
+    private final long cpuNanos;
+
+    private final long allocatedBytes;
+
+    public ScriptResourceUsage(long cpuNanos, long allocatedBytes) {
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return CPU time in nanoseconds, user and system time combined.
+     */
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    /**
+     * @return memory allocated in the heap in bytes, approximate.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptResourceUsage{" +
+                "cpuNanos=" + cpuNanos +
+                ", allocatedBytes=" + allocatedBytes +
+                '}';
+    }
+}
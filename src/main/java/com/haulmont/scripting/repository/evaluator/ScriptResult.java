@@ -14,10 +14,24 @@ public class ScriptResult<T> {
 
     private final Throwable error;
 
+    private final ScriptTimings timings;
+
+    private final ScriptResourceUsage resourceUsage;
+
     public ScriptResult(T value, EvaluationStatus status, Throwable error) {
+        this(value, status, error, null);
+    }
+
+    public ScriptResult(T value, EvaluationStatus status, Throwable error, ScriptTimings timings) {
+        this(value, status, error, timings, null);
+    }
+
+    public ScriptResult(T value, EvaluationStatus status, Throwable error, ScriptTimings timings, ScriptResourceUsage resourceUsage) {
         this.value = value;
         this.status = status;
         this.error = error;
+        this.timings = timings;
+        this.resourceUsage = resourceUsage;
     }
 
     public T getValue() {
@@ -31,4 +45,20 @@ public class ScriptResult<T> {
     public Throwable getError() {
         return error;
     }
+
+    /**
+     * @return time spent in execution phases of successful invocation, null if timings collection is disabled
+     * with {@code script.repository.timings.enabled} property or the invocation failed.
+     */
+    public ScriptTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return CPU time and memory consumed by successful invocation, null if resource accounting is disabled
+     * with {@code script.repository.resources.enabled} property and the method has no budgets, or the invocation failed.
+     */
+    public ScriptResourceUsage getResourceUsage() {
+        return resourceUsage;
+    }
 }
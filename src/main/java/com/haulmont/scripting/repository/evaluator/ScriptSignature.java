@@ -0,0 +1,83 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Names and types of script variables and type of the script result, taken from scripted method signature.
+ * Used by {@link TypedScriptEvaluator} implementations to compile scripts with typed variables.
+ */
+public class ScriptSignature {
+
+    private final String[] parameterNames;
+
+    private final Class<?>[] parameterTypes;
+
+    private final Class<?> resultType;
+
+    /**
+     * @param parameterNames names of script variables.
+     * @param parameterTypes types of script variables in the same order as names.
+     * @param resultType     type of the script result, {@code void.class} if the result is ignored.
+     */
+    public ScriptSignature(String[] parameterNames, Class<?>[] parameterTypes, Class<?> resultType) {
+        if (parameterNames.length != parameterTypes.length) {
+            throw new IllegalArgumentException(String.format("Parameter names and types must be the same length. Names: %d types: %d",
+                    parameterNames.length, parameterTypes.length));
+        }
+        this.parameterNames = parameterNames.clone();
+        this.parameterTypes = parameterTypes.clone();
+        this.resultType = resultType;
+    }
+
+    public String[] getParameterNames() {
+        return parameterNames.clone();
+    }
+
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    public int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    public String getParameterName(int index) {
+        return parameterNames[index];
+    }
+
+    public Class<?> getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    public Class<?> getResultType() {
+        return resultType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ScriptSignature that = (ScriptSignature) o;
+        return Arrays.equals(parameterNames, that.parameterNames)
+                && Arrays.equals(parameterTypes, that.parameterTypes)
+                && Objects.equals(resultType, that.resultType);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(parameterNames) + Arrays.hashCode(parameterTypes)) + Objects.hashCode(resultType);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ScriptSignature{(");
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(parameterTypes[i].getSimpleName()).append(' ').append(parameterNames[i]);
+        }
+        return sb.append(") -> ").append(resultType.getSimpleName()).append('}').toString();
+    }
+}
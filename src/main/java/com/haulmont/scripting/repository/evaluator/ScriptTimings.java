@@ -0,0 +1,77 @@
+package com.haulmont.scripting.repository.evaluator;
+
+/**
+ * Time spent in each phase of scripted method execution, in nanoseconds. Compilation time is zero if
+ * compiled script was taken from the cache or if the script engine does not compile scripts separately,
+ * in the latter case compilation is a part of evaluation time.
+ */
+public class ScriptTimings {
+
+    private final long queueWaitNanos;
+
+    private final long fetchNanos;
+
+    private final long compileNanos;
+
+    private final long evaluationNanos;
+
+    private final boolean compiled;
+
+    public ScriptTimings(long queueWaitNanos, long fetchNanos, long compileNanos, long evaluationNanos, boolean compiled) {
+        this.queueWaitNanos = queueWaitNanos;
+        this.fetchNanos = fetchNanos;
+        this.compileNanos = compileNanos;
+        this.evaluationNanos = evaluationNanos;
+        this.compiled = compiled;
+    }
+
+    /**
+     * @return time the task waited for a free executor thread, zero for execution in the caller's thread.
+     */
+    public long getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * @return time spent in script provider.
+     */
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    /**
+     * @return time spent compiling the script.
+     */
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    /**
+     * @return time spent in script evaluator excluding compilation.
+     */
+    public long getEvaluationNanos() {
+        return evaluationNanos;
+    }
+
+    /**
+     * @return true if the script was compiled during this invocation, false if compiled script was cached.
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public long getTotalNanos() {
+        return queueWaitNanos + fetchNanos + compileNanos + evaluationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptTimings{" +
+                "queueWaitNanos=" + queueWaitNanos +
+                ", fetchNanos=" + fetchNanos +
+                ", compileNanos=" + compileNanos +
+                ", evaluationNanos=" + evaluationNanos +
+                ", compiled=" + compiled +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package com.haulmont.scripting.repository.evaluator;
 
+import java.lang.reflect.Method;
+
 /**
  * Interface to mark classes cancellable - the method is be called on
  * exception during execution. You may use it to close DB connections,
@@ -14,4 +16,15 @@ public interface TimeoutAware {
      */
     void cancel();
 
+    /**
+     * This method is called to interrupt script evaluation of the given method in case of exception or timeout.
+     * Implementations that serve several methods at once may cancel only the work done for this method,
+     * by default everything is cancelled with {@link #cancel()}.
+     *
+     * @param method scripted method which invocation is interrupted.
+     */
+    default void cancel(Method method) {
+        cancel();
+    }
+
 }
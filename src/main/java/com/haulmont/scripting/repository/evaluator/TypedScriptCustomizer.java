@@ -0,0 +1,92 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.CastExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.classgen.GeneratorContext;
+import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.syntax.Token;
+import org.codehaus.groovy.syntax.Types;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * Moves script body into a method with the signature's result type and declares script variables at its beginning
+ * as typed local variables initialized from the script binding. Together with static compilation it makes
+ * the type checker verify variable usages and the returned value against the scripted method signature.
+ * Script text is not changed, so line numbers in compilation errors are preserved.
+ */
+class TypedScriptCustomizer extends CompilationCustomizer {
+
+    static final String TYPED_RUN_METHOD = "typedRun$";
+
+    private final ScriptSignature signature;
+
+    TypedScriptCustomizer(ScriptSignature signature) {
+        super(CompilePhase.CONVERSION);
+        this.signature = signature;
+    }
+
+    @Override
+    public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) {
+        if (!classNode.isScript()) {
+            return;
+        }
+        MethodNode run = classNode.getMethod("run", Parameter.EMPTY_ARRAY);
+        if (run == null || classNode.getMethod(TYPED_RUN_METHOD, Parameter.EMPTY_ARRAY) != null) {
+            return;
+        }
+
+        BlockStatement typedBody = new BlockStatement();
+        for (int i = 0; i < signature.getParameterCount(); i++) {
+            typedBody.addStatement(declareVariable(signature.getParameterName(i), signature.getParameterType(i)));
+        }
+        typedBody.addStatement(run.getCode());
+
+        Class<?> resultType = signature.getResultType() == Void.class ? void.class : signature.getResultType();
+        MethodNode typedRun = new MethodNode(TYPED_RUN_METHOD, Modifier.PRIVATE, ClassHelper.make(resultType),
+                Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, typedBody);
+        typedRun.setSourcePosition(run);
+        classNode.addMethod(typedRun);
+
+        MethodCallExpression typedRunCall = new MethodCallExpression(VariableExpression.THIS_EXPRESSION,
+                TYPED_RUN_METHOD, ArgumentListExpression.EMPTY_ARGUMENTS);
+        typedRunCall.setImplicitThis(true);
+        BlockStatement runBody = new BlockStatement();
+        if (resultType == void.class) {
+            runBody.addStatement(new ExpressionStatement(typedRunCall));
+            runBody.addStatement(new ReturnStatement(ConstantExpression.NULL));
+        } else {
+            runBody.addStatement(new ReturnStatement(typedRunCall));
+        }
+        run.setCode(runBody);
+    }
+
+    /**
+     * Creates {@code Type name = (Type) getBinding().getVariable("name")} statement.
+     */
+    private ExpressionStatement declareVariable(String name, Class<?> type) {
+        ClassNode typeNode = ClassHelper.make(type);
+        MethodCallExpression getBinding = new MethodCallExpression(VariableExpression.THIS_EXPRESSION,
+                "getBinding", ArgumentListExpression.EMPTY_ARGUMENTS);
+        MethodCallExpression getVariable = new MethodCallExpression(getBinding,
+                "getVariable", new ArgumentListExpression(new ConstantExpression(name)));
+        DeclarationExpression declaration = new DeclarationExpression(
+                new VariableExpression(name, typeNode),
+                Token.newSymbol(Types.ASSIGN, -1, -1),
+                new CastExpression(typeNode, getVariable));
+        return new ExpressionStatement(declaration);
+    }
+}
@@ -0,0 +1,35 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.scripting.ScriptEvaluator;
+import org.springframework.scripting.ScriptSource;
+
+import java.util.Map;
+
+/**
+ * Script evaluator that uses types of scripted method parameters and result. Script repository passes
+ * the method's signature to evaluators implementing this interface instead of calling untyped methods.
+ */
+public interface TypedScriptEvaluator extends ScriptEvaluator {
+
+    /**
+     * Evaluates script with typed variables.
+     *
+     * @param script    script source.
+     * @param arguments variable values by name.
+     * @param signature variable types and result type.
+     * @return script evaluation result.
+     * @throws ScriptCompilationException if script cannot be compiled.
+     */
+    Object evaluate(ScriptSource script, Map<String, Object> arguments, ScriptSignature signature) throws ScriptCompilationException;
+
+    /**
+     * Compiles script for the signature without evaluating it.
+     *
+     * @param script    script source.
+     * @param signature variable types and result type.
+     * @throws ScriptCompilationException if script cannot be compiled or does not match the signature.
+     */
+    void compile(ScriptSource script, ScriptSignature signature) throws ScriptCompilationException;
+
+}
@@ -0,0 +1,144 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.config.CircuitBreakerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of a scripted method. Outcomes of the last {@link CircuitBreakerConfig#window} invocations are kept
+ * in a ring buffer; when the window is full and failure or slow call rate reaches its threshold, the breaker opens
+ * and rejects invocations for {@link CircuitBreakerConfig#openDuration}. Then it lets
+ * {@link CircuitBreakerConfig#halfOpenCalls} probe invocations through: if all of them succeed, the breaker closes
+ * with an empty window, otherwise it opens again.
+ * <p>
+ * Every permitted invocation gets a stamp of the state it was permitted in, outcomes of invocations started
+ * before the last state change are ignored.
+ */
+class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    static final long NOT_PERMITTED = -1L;
+
+    private static final byte FAILED = 1;
+
+    private static final byte SLOW = 2;
+
+    private enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final Method method;
+
+    private final CircuitBreakerConfig config;
+
+    private final long slowCallNanos;
+
+    private final byte[] outcomes; //ring buffer of recent outcomes, guarded by this
+
+    private int recorded;
+
+    private int position;
+
+    private int failures;
+
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+
+    private long stamp; //incremented on every state change
+
+    private long openUntil;
+
+    private int probesStarted;
+
+    private int probesSucceeded;
+
+    CircuitBreaker(Method method, CircuitBreakerConfig config) {
+        this.method = method;
+        this.config = config;
+        this.slowCallNanos = config.slowCallDuration >= 0 ? TimeUnit.MILLISECONDS.toNanos(config.slowCallDuration) : -1L;
+        this.outcomes = new byte[config.window];
+    }
+
+    /**
+     * Checks whether an invocation may proceed. Permitted invocation must report its outcome
+     * with {@link #record(long, long, boolean)}.
+     *
+     * @return permission stamp or {@link #NOT_PERMITTED} if the breaker is open.
+     */
+    synchronized long acquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() < openUntil) {
+                return NOT_PERMITTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= config.halfOpenCalls) {
+                return NOT_PERMITTED;
+            }
+            probesStarted++;
+        }
+        return stamp;
+    }
+
+    /**
+     * Records outcome of a permitted invocation.
+     *
+     * @param permit        stamp returned by {@link #acquire()}.
+     * @param durationNanos invocation duration.
+     * @param failed        true if the invocation failed or timed out.
+     */
+    synchronized void record(long permit, long durationNanos, boolean failed) {
+        if (permit != stamp) {
+            return;
+        }
+        boolean slow = slowCallNanos >= 0 && durationNanos > slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                log.warn("Circuit breaker of {} is opened again, probe invocation {}", method, failed ? "failed" : "was slow");
+                transitionTo(State.OPEN);
+            } else if (++probesSucceeded >= config.halfOpenCalls) {
+                log.info("Circuit breaker of {} is closed", method);
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[position];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[position] = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        position = (position + 1) % outcomes.length;
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+        if (recorded == outcomes.length) {
+            if (failures * 100 >= config.failureRate * recorded) {
+                log.warn("Circuit breaker of {} is opened: {} of {} recent invocations failed", method, failures, recorded);
+                transitionTo(State.OPEN);
+            } else if (slowCallNanos >= 0 && slowCalls * 100 >= config.slowCallRate * recorded) {
+                log.warn("Circuit breaker of {} is opened: {} of {} recent invocations were slow", method, slowCalls, recorded);
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        stamp++;
+        recorded = 0;
+        position = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesStarted = 0;
+        probesSucceeded = 0;
+        if (newState == State.OPEN) {
+            openUntil = System.currentTimeMillis() + config.openDuration;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.config.ConcurrencyLimitConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent invocations of a scripted method or of all methods of a repository (bulkhead),
+ * so a burst of calls to one method cannot occupy the whole repository thread pool. Invocations over the limit wait
+ * in a bounded queue for a limited time or are rejected immediately. Only callers that may block wait in the queue,
+ * asynchronous invocations are rejected immediately since their callers expect a future without blocking.
+ * <p>
+ * Adaptive limit follows AIMD algorithm: every invocation slower than the latency threshold multiplies the limit
+ * by {@link #BACKOFF_RATIO}, every faster invocation increases it by {@code 1 / limit}, i.e. by one per limit
+ * invocations, up to the configured maximum. The limit is increased only while it is actually used,
+ * so an idle method does not regain its maximum limit without evidence.
+ */
+class ConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+
+    private final int maxLimit;
+
+    private final int maxWaiting;
+
+    private final long maxWaitNanos;
+
+    private final long latencyThresholdNanos; //negative for fixed limit
+
+    private double limit; //guarded by this
+
+    private int inFlight; //guarded by this
+
+    private int waiting; //guarded by this
+
+    ConcurrencyLimiter(String name, ConcurrencyLimitConfig config) {
+        this(name, config.maxConcurrentCalls, config.maxWaitingCalls, config.maxWaitTime, config.latencyThreshold);
+    }
+
+    /**
+     * Creates fixed limiter that does not queue invocations.
+     */
+    ConcurrencyLimiter(String name, int maxConcurrentCalls) {
+        this(name, maxConcurrentCalls, 0, 0L, -1L);
+    }
+
+    private ConcurrencyLimiter(String name, int maxLimit, int maxWaiting, long maxWaitTime, long latencyThreshold) {
+        this.name = name;
+        this.maxLimit = maxLimit;
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(maxWaitTime, 0L));
+        this.latencyThresholdNanos = latencyThreshold > 0 ? TimeUnit.MILLISECONDS.toNanos(latencyThreshold) : -1L;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Takes a slot for an invocation, waits for a free slot if allowed, the limit is reached and the queue
+     * is not full. Interrupted waiting is treated as rejection, the interrupted status of the thread is preserved.
+     *
+     * @param wait false if the caller must not block, the invocation is rejected if there is no free slot.
+     * @return true if the invocation may proceed, it must call {@link #release(long)} when finished.
+     */
+    synchronized boolean tryAcquire(boolean wait) {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return true;
+        }
+        if (!wait || waiting >= maxWaiting || maxWaitNanos <= 0) {
+            return false;
+        }
+        waiting++;
+        try {
+            long deadline = System.nanoTime() + maxWaitNanos;
+            while (inFlight >= getLimit()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waiting--;
+        }
+    }
+
+    /**
+     * Frees the slot taken by a finished invocation and adjusts adaptive limit.
+     *
+     * @param latencyNanos invocation duration, negative if the invocation was not executed and should not
+     *                     affect the limit.
+     */
+    synchronized void release(long latencyNanos) {
+        if (latencyThresholdNanos > 0 && latencyNanos >= 0) {
+            if (latencyNanos > latencyThresholdNanos) {
+                double decreased = Math.max(1.0, limit * BACKOFF_RATIO);
+                if ((int) decreased < (int) limit) {
+                    log.debug("Concurrency limit of {} is decreased to {}", name, (int) decreased);
+                }
+                limit = decreased;
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+        inFlight--;
+        if (waiting > 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return current number of concurrent invocations allowed.
+     */
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+}
@@ -0,0 +1,97 @@
+package com.haulmont.scripting.repository.factory;
+
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.MethodProxy;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates script repository proxies as classes generated with CGLIB shipped in spring-core. Generated class
+ * has a separate callback for every scripted method, so a call is dispatched to the method's invocation plan
+ * without a map lookup, and the JIT can inline the call chain through the repository facade.
+ * {@code equals}, {@code hashCode}, {@code toString} and interface methods that are not scripted are implemented
+ * by the handler the same way as for JDK proxies, other methods declared in {@link Object} are not intercepted.
+ */
+class GeneratedProxyFactory {
+
+    private static final int OBJECT_METHODS = 0;
+
+    private static final int NOT_SCRIPTED_METHODS = 1;
+
+    private GeneratedProxyFactory() {
+    }
+
+    static Object createProxy(Class<?> repositoryClass, RepositoryMethodsHandler handler) {
+        List<Callback> callbacks = new ArrayList<>();
+        callbacks.add(NoOp.INSTANCE);
+        callbacks.add((org.springframework.cglib.proxy.InvocationHandler) handler::invokeNotScriptedMethod);
+        Map<Method, Integer> callbackIndexes = new HashMap<>();
+        for (Method method : repositoryClass.getMethods()) {
+            MethodInvocationPlan plan = handler.getInvocationPlan(method);
+            if (plan != null) {
+                callbackIndexes.put(method, callbacks.size());
+                callbacks.add(new ScriptedMethodInterceptor(handler, plan));
+            }
+        }
+
+        Enhancer enhancer = new Enhancer();
+        enhancer.setClassLoader(repositoryClass.getClassLoader());
+        enhancer.setInterfaces(new Class<?>[]{repositoryClass});
+        enhancer.setUseCache(false);
+        enhancer.setUseFactory(false);
+        enhancer.setCallbackFilter(new ScriptedMethodFilter(callbackIndexes));
+        enhancer.setCallbacks(callbacks.toArray(new Callback[0]));
+        return enhancer.create();
+    }
+
+    /**
+     * Binds every scripted method to its own interceptor, other interface methods and {@code equals}, {@code hashCode},
+     * {@code toString} to the handler's implementation of methods that are not scripted.
+     */
+    private static class ScriptedMethodFilter implements CallbackFilter {
+
+        private final Map<Method, Integer> callbackIndexes;
+
+        ScriptedMethodFilter(Map<Method, Integer> callbackIndexes) {
+            this.callbackIndexes = callbackIndexes;
+        }
+
+        @Override
+        public int accept(Method method) {
+            if (ReflectionUtils.isEqualsMethod(method) || ReflectionUtils.isHashCodeMethod(method)
+                    || ReflectionUtils.isToStringMethod(method)) {
+                return NOT_SCRIPTED_METHODS;
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return OBJECT_METHODS;
+            }
+            return callbackIndexes.getOrDefault(method, NOT_SCRIPTED_METHODS);
+        }
+    }
+
+    private static class ScriptedMethodInterceptor implements MethodInterceptor {
+
+        private final RepositoryMethodsHandler handler;
+
+        private final MethodInvocationPlan plan;
+
+        ScriptedMethodInterceptor(RepositoryMethodsHandler handler, MethodInvocationPlan plan) {
+            this.handler = handler;
+            this.plan = plan;
+        }
+
+        @Override
+        public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) {
+            return handler.invokeScriptedMethod(plan, proxy, args);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.haulmont.scripting.repository.factory;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the thread that executes a scripted method, so the execution can be interrupted when
+ * caller stops waiting for the result (e.g. on timeout). Interrupt is delivered only while the task is running,
+ * so a pool thread is never interrupted after it has switched to another task. When the task runs in the caller's
+ * thread, the interrupted status the caller had before the execution is kept.
+ */
+class InterruptibleExecution {
+
+    private Thread worker;
+
+    private boolean cancelled;
+
+    private boolean finished;
+
+    private boolean interrupted;
+
+    /**
+     * Executes the task in the current thread and makes the thread available for interruption.
+     *
+     * @param task task to be executed.
+     * @param <T>  task result type.
+     * @return task result.
+     * @throws CancellationException if the execution was cancelled before the task started.
+     */
+    <T> T run(Supplier<T> task) {
+        synchronized (this) {
+            if (cancelled) {
+                throw new CancellationException("Script execution was cancelled before start");
+            }
+            worker = Thread.currentThread();
+        }
+        boolean callerInterrupted = Thread.currentThread().isInterrupted();
+        try {
+            return task.get();
+        } finally {
+            synchronized (this) {
+                worker = null;
+                finished = true;
+                if (callerInterrupted) {
+                    //Restoring the caller's interrupt that might be consumed by the script
+                    Thread.currentThread().interrupt();
+                } else if (interrupted) {
+                    //Clearing our own interrupt that might not be consumed by the script
+                    //to return a clean thread to the pool
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Interrupts execution thread if the task is running and prevents the task from being started otherwise.
+     *
+     * @return true if a running task was interrupted.
+     */
+    synchronized boolean cancel() {
+        cancelled = true;
+        if (worker != null && !finished) {
+            interrupted = true;
+            worker.interrupt();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.evaluator.ResourceBudgetExceededException;
+import com.haulmont.scripting.repository.provider.ScriptSourceVersions;
+import org.springframework.scripting.ScriptSource;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded LRU cache of scripted method results keyed by argument values. Results are valid for one script version only,
+ * the version is taken from {@link ScriptSourceVersions}: when the text changes, all results are dropped. Versions
+ * of source instances are remembered, so the text is not read again until the source reports modification, and
+ * providers that create a new source instance for every call still get memoized results. Arguments are compared with {@code equals()},
+ * so arrays match only the same instance.
+ */
+class MemoizedResults {
+
+    private final int maxSize;
+
+    private final long ttl;
+
+    private final boolean memoizeFailures;
+
+    private final Map<List<Object>, Result> results; //guarded by itself
+
+    private String version; //version of the script memoized results were evaluated with, guarded by results
+
+    MemoizedResults(int maxSize, long ttl, boolean memoizeFailures) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.memoizeFailures = memoizeFailures;
+        this.results = new LinkedHashMap<List<Object>, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Result> eldest) {
+                return size() > MemoizedResults.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Creates cache key from method arguments, the arguments array is copied.
+     */
+    static List<Object> createKey(Object[] args) {
+        return args == null || args.length == 0 ? Collections.emptyList() : Arrays.asList(args.clone());
+    }
+
+    /**
+     * Gets version of the script before evaluation. The text of a source that reports modification is not read here,
+     * otherwise the evaluator would not see the modification and would use a stale compiled script.
+     *
+     * @param script script source of the method.
+     * @return script version, null if it is known only after the script is evaluated.
+     */
+    String getVersion(ScriptSource script) {
+        String known = ScriptSourceVersions.getRememberedVersion(script);
+        if (known != null) {
+            return script.isModified() ? null : known;
+        }
+        return readVersion(script);
+    }
+
+    /**
+     * Reads script text and remembers its version.
+     *
+     * @param script script source of the method.
+     * @return script version, null if the text cannot be read.
+     */
+    String readVersion(ScriptSource script) {
+        try {
+            return ScriptSourceVersions.readVersion(script);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns memoized result for the arguments if it was evaluated with the same script version.
+     *
+     * @param key     arguments key.
+     * @param version current script version, see {@link #getVersion(ScriptSource)}.
+     * @return memoized result, null if there is no valid result.
+     */
+    Result get(List<Object> key, String version) {
+        synchronized (results) {
+            if (!version.equals(this.version)) {
+                results.clear();
+                this.version = version;
+                return null;
+            }
+            Result result = results.get(key);
+            if (result != null && ttl >= 0 && System.currentTimeMillis() - result.createdAt >= ttl) {
+                results.remove(key);
+                return null;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Memoizes value returned by the script.
+     */
+    void putValue(List<Object> key, String version, Object value) {
+        put(key, version, new Result(value, null));
+    }
+
+    /**
+     * Memoizes script error if failures should be memoized and the error is not caused by timeout, interruption
+     * or exceeded resource budget.
+     */
+    void putFailure(List<Object> key, String version, RuntimeException error) {
+        if (memoizeFailures && error != null && !isTransient(error)) {
+            put(key, version, new Result(null, error));
+        }
+    }
+
+    private void put(List<Object> key, String version, Result result) {
+        synchronized (results) {
+            //Results of another script version are dropped, the result is always evaluated with the version passed
+            if (!version.equals(this.version)) {
+                results.clear();
+                this.version = version;
+            }
+            results.put(key, result);
+        }
+    }
+
+    private static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof TimeoutException || t instanceof InterruptedException || t instanceof CancellationException
+                    || t instanceof ResourceBudgetExceededException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Memoized script value or error.
+     */
+    static class Result {
+
+        final Object value;
+
+        final RuntimeException error; //null for successful invocation
+
+        final long createdAt = System.currentTimeMillis();
+
+        Result(Object value, RuntimeException error) {
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.ExecutionMode;
+import com.haulmont.scripting.repository.WarmUp;
+import com.haulmont.scripting.repository.config.AnnotationConfig;
+import com.haulmont.scripting.repository.evaluator.ParameterBindings;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.evaluator.ScriptSignature;
+import com.haulmont.scripting.repository.metrics.MethodMetrics;
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scripting.ScriptEvaluator;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scripted method invocation data computed once when repository proxy is created, so method invocation
+ * does not need reflection or bean lookup. Provider and evaluator beans are resolved on the first invocation,
+ * not while the proxy is created, since they may depend on the repository themselves. Singletons are kept
+ * for later invocations, other scopes are resolved on every invocation.
+ * <p>
+ * Besides resolved beans, the only mutable state is the time until which the script is known to be missing.
+ */
+class MethodInvocationPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(MethodInvocationPlan.class);
+
+    final Method method;
+
+    final AnnotationConfig config;
+
+    final String[] parameterNames;
+
+    private final ParameterBindings.Layout bindingsLayout;
+
+    /**
+     * True if method returns {@link ScriptResult} or a future of {@link ScriptResult} for asynchronous methods.
+     */
+    final boolean wrapResult;
+
+    /**
+     * True if method returns {@link CompletableFuture} or {@link CompletionStage} and should not block the caller.
+     */
+    final boolean async;
+
+    final long timeout;
+
+    /**
+     * Interface method that will be invoked if there is no script for scripted method, null for abstract methods.
+     */
+    final Method defaultMethod;
+
+    /**
+     * Handle of the interface default method with (proxy, args) signature, null if method is not default or
+     * the handle cannot be created on this JVM.
+     */
+    final MethodHandle defaultMethodHandle;
+
+    /**
+     * Executor for script provider and evaluator calls: either configured executor bean or repository thread pool.
+     */
+    final Executor executor;
+
+    /**
+     * True if script should be executed in the caller's thread, see {@link ExecutionMode}.
+     */
+    final boolean callerThread;
+
+    final MethodMetrics metrics;
+
+    /**
+     * True if phase timings should be measured and returned in {@link ScriptResult}.
+     */
+    final boolean collectTimings;
+
+    /**
+     * Sample arguments for warm-up evaluation, null if the method should only be compiled during warm-up.
+     */
+    final WarmUp warmUp;
+
+    /**
+     * Script variable types and result type for typed evaluators.
+     */
+    final ScriptSignature signature;
+
+    /**
+     * Results memoized by argument values, null if memoization is disabled.
+     */
+    final MemoizedResults memo;
+
+    /**
+     * Circuit breaker of the method, null if it is disabled.
+     */
+    final CircuitBreaker circuitBreaker;
+
+    /**
+     * Concurrency limit of the method, null if it is not limited.
+     */
+    final ConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Concurrency limit shared by all methods of the repository, null if it is not limited.
+     */
+    final ConcurrencyLimiter repositoryLimiter;
+
+    /**
+     * True if CPU time and allocations of invocations should be measured.
+     */
+    final boolean accountResources;
+
+    /**
+     * CPU time budget of one invocation in nanoseconds, negative if not limited.
+     */
+    final long cpuBudgetNanos;
+
+    private final ApplicationContext ctx;
+
+    private volatile ScriptProvider provider; //null until a singleton provider is resolved
+
+    private volatile ScriptEvaluator evaluator; //null until a singleton evaluator is resolved
+
+    private final long missingScriptTtl;
+
+    private volatile long scriptMissingUntil;
+
+    MethodInvocationPlan(Method method, AnnotationConfig config, ApplicationContext ctx, Executor repositoryExecutor,
+                         long missingScriptTtl, MethodMetrics metrics, boolean timingsEnabled, boolean resourcesEnabled,
+                         ConcurrencyLimiter repositoryLimiter) {
+        this.method = method;
+        this.config = config;
+        this.ctx = ctx;
+        this.parameterNames = AnnotationConfig.getParameterNames(method);
+        this.bindingsLayout = new ParameterBindings.Layout(parameterNames);
+        this.async = method.getReturnType() == CompletableFuture.class || method.getReturnType() == CompletionStage.class;
+        this.wrapResult = ScriptResult.class.isAssignableFrom(getResultType(method, async));
+        this.timeout = config.timeout;
+        this.defaultMethod = method.isDefault() ? method : null;
+        this.defaultMethodHandle = method.isDefault() ? createDefaultMethodHandle(method) : null;
+        this.missingScriptTtl = missingScriptTtl;
+        this.metrics = metrics;
+        this.collectTimings = timingsEnabled && wrapResult;
+        this.warmUp = AnnotationUtils.findAnnotation(method, WarmUp.class);
+        this.signature = new ScriptSignature(parameterNames, method.getParameterTypes(), getScriptValueType(method, async));
+        this.circuitBreaker = config.circuitBreaker != null ? new CircuitBreaker(method, config.circuitBreaker) : null;
+        this.concurrencyLimiter = config.concurrencyLimit != null
+                ? new ConcurrencyLimiter(method.toString(), config.concurrencyLimit)
+                : null;
+        this.repositoryLimiter = repositoryLimiter;
+        if (async && config.concurrencyLimit != null && config.concurrencyLimit.maxWaitingCalls > 0) {
+            log.warn("Asynchronous method {} does not wait for a free slot, invocations over the concurrency limit are rejected", method);
+        }
+        this.memo = config.memoizeSize > 0 ? new MemoizedResults(config.memoizeSize, config.memoizeTtl, config.memoizeFailures) : null;
+        this.cpuBudgetNanos = config.cpuBudget > 0 ? TimeUnit.MILLISECONDS.toNanos(config.cpuBudget) : -1L;
+        this.accountResources = resourcesEnabled || hasResourceBudget();
+        if (config.cpuBudget > 0 && !ResourceAccount.Meter.isCpuTimeSupported()
+                || config.allocationBudget > 0 && !ResourceAccount.Meter.isAllocationSupported()) {
+            log.warn("Resource budgets of {} cannot be enforced by the JVM: {}", method, config);
+        }
+        this.executor = StringUtils.hasText(config.executor) ? ctx.getBean(config.executor, Executor.class) : repositoryExecutor;
+        this.callerThread = config.executionMode == ExecutionMode.CALLER_THREAD
+                || (config.executionMode == ExecutionMode.AUTO && timeout <= 0 && !async);
+    }
+
+    /**
+     * Gets type of the value produced by the script: method return type or future value type for asynchronous methods.
+     */
+    private static Class<?> getResultType(Method method, boolean async) {
+        if (async) {
+            return ResolvableType.forMethodReturnType(method).as(CompletionStage.class).getGeneric(0).resolve(Object.class);
+        }
+        return method.getReturnType();
+    }
+
+    /**
+     * Gets type of the value returned by the script itself, i.e. without {@link ScriptResult} and future wrappers.
+     */
+    private static Class<?> getScriptValueType(Method method, boolean async) {
+        ResolvableType type = ResolvableType.forMethodReturnType(method);
+        if (async) {
+            type = type.as(CompletionStage.class).getGeneric(0);
+        }
+        if (ScriptResult.class.isAssignableFrom(type.resolve(Object.class))) {
+            type = type.as(ScriptResult.class).getGeneric(0);
+        }
+        return type.resolve(Object.class);
+    }
+
+    /**
+     * Creates handle that invokes interface default method on a proxy bypassing proxy's invocation handler.
+     * Private lookup is obtained with {@code MethodHandles.privateLookupIn} on Java 9+ and with Lookup's private
+     * constructor on Java 8.
+     *
+     * @see <a href="https://blog.jooq.org/2018/03/28/correct-reflective-access-to-interface-default-methods-in-java-8-9-10/">
+     * Correct reflective access to interface default methods</a>
+     */
+    static MethodHandle createDefaultMethodHandle(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup;
+            try {
+                Method privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+                lookup = (MethodHandles.Lookup) privateLookupIn.invoke(null, declaringClass, MethodHandles.lookup());
+            } catch (NoSuchMethodException e) { //Java 8
+                Constructor<MethodHandles.Lookup> constructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
+                constructor.setAccessible(true);
+                lookup = constructor.newInstance(declaringClass);
+            }
+            int parameterCount = method.getParameterCount();
+            return lookup.unreflectSpecial(method, declaringClass)
+                    .asType(MethodType.genericMethodType(parameterCount + 1))
+                    .asSpreader(Object[].class, parameterCount);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Cannot create method handle for default method {}: {}", method, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return true if CPU time or allocations of an invocation are limited.
+     */
+    boolean hasResourceBudget() {
+        return config.cpuBudget > 0 || config.allocationBudget > 0;
+    }
+
+    /**
+     * @return true if provider recently reported that there is no script for the method, so the default
+     * method can be invoked without asking provider again.
+     */
+    boolean isScriptMissing() {
+        return System.currentTimeMillis() < scriptMissingUntil;
+    }
+
+    /**
+     * Remembers that provider has no script for the method for the configured time.
+     */
+    void markScriptMissing() {
+        if (missingScriptTtl > 0) {
+            scriptMissingUntil = System.currentTimeMillis() + missingScriptTtl;
+        }
+    }
+
+    ScriptProvider getProvider() {
+        ScriptProvider resolved = provider;
+        if (resolved == null) {
+            resolved = (ScriptProvider) ctx.getBean(config.provider);
+            if (ctx.isSingleton(config.provider)) {
+                provider = resolved;
+            }
+        }
+        return resolved;
+    }
+
+    ScriptEvaluator getEvaluator() {
+        ScriptEvaluator resolved = evaluator;
+        if (resolved == null) {
+            resolved = (ScriptEvaluator) ctx.getBean(config.evaluator);
+            if (ctx.isSingleton(config.evaluator)) {
+                evaluator = resolved;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Creates script bindings from actual method arguments.
+     *
+     * @param args method arguments.
+     * @return parameter name - value bindings backed by the arguments array.
+     */
+    Map<String, Object> createParameterMap(Object[] args) {
+        return bindingsLayout.bind(args);
+    }
+
+    @Override
+    public String toString() {
+        return "MethodInvocationPlan{" +
+                "method=" + method +
+                ", config=" + config +
+                '}';
+    }
+}
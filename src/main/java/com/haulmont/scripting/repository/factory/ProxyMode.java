@@ -0,0 +1,17 @@
+package com.haulmont.scripting.repository.factory;
+
+/**
+ * Defines how script repository proxies are created, set with {@code script.repository.proxy.mode} property.
+ */
+public enum ProxyMode {
+    /**
+     * JDK dynamic proxy, every call goes through a single invocation handler that looks up the method's invocation plan.
+     */
+    JDK,
+    /**
+     * Class generated with CGLIB for every repository interface. Each scripted method is bound to its own interceptor
+     * holding the method's invocation plan, {@code equals}, {@code hashCode} and {@code toString} are inherited
+     * from {@link Object} without interception.
+     */
+    CGLIB
+}
@@ -1,39 +1,69 @@
 package com.haulmont.scripting.repository.factory;
 
+import com.haulmont.scripting.repository.RejectionPolicy;
 import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptRepository;
 import com.haulmont.scripting.repository.config.AnnotationConfig;
+import com.haulmont.scripting.repository.config.CircuitBreakerConfig;
+import com.haulmont.scripting.repository.config.ConcurrencyLimitConfig;
+import com.haulmont.scripting.repository.evaluator.CircuitBreakerOpenException;
+import com.haulmont.scripting.repository.evaluator.CompilationTimer;
+import com.haulmont.scripting.repository.evaluator.CompilingScriptEvaluator;
+import com.haulmont.scripting.repository.evaluator.ConcurrencyLimitExceededException;
 import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
 import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
 import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.evaluator.ScriptTimings;
 import com.haulmont.scripting.repository.evaluator.TimeoutAware;
+import com.haulmont.scripting.repository.evaluator.TypedScriptEvaluator;
+import com.haulmont.scripting.repository.metrics.ScriptMetricsRegistry;
 import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
 import com.haulmont.scripting.repository.provider.ScriptProvider;
 import org.joor.Reflect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodParameter;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scripting.ScriptEvaluator;
 import org.springframework.scripting.ScriptSource;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 /**
- * Class that process all repository invocations. All method invocations that are not specific to script
- * repository interface (equals, hashcode, etc.) will be redirected to Object class instance created within the class.
+ * Class that process all repository invocations. Methods that are not scripted are implemented by the handler itself:
+ * equals, hashCode and toString use proxy identity, interface default methods run their own body.
  * Scripted method invocation configuration (method, provider bean instance and evaluator bean instance) are cached.
  */
 @SuppressWarnings("serial")
@@ -41,101 +71,624 @@ class RepositoryMethodsHandler implements InvocationHandler, Serializable {
 
     private final Logger log = LoggerFactory.getLogger(RepositoryMethodsHandler.class);
 
-    private final Object defaultDelegate = new Object();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private static final long DEFAULT_MISSING_SCRIPT_TTL = 5_000L;
+
+    private static final long NOT_QUEUED = Long.MIN_VALUE; //submission time of tasks executed in the caller's thread
 
     private final Class<?> repositoryClass;
 
+    private final Map<Method, MethodHandle> defaultMethodHandles; //handles of default methods that are not scripted
+
     private final Map<Class<? extends Annotation>, AnnotationConfig> customAnnotationsConfig;
 
-    private final ApplicationContext ctx;
+    private final Map<Method, MethodInvocationPlan> invocationPlans; //precomputed scripted methods invocation data
 
-    private Map<Method, AnnotationConfig> methodScriptInvocationMetadata = new ConcurrentHashMap<>(); //local invocation metadata cache
+    private final ExecutorService repositoryThreadPool; //null if repository uses executor bean
 
+    private static final TimeoutScheduler timeoutScheduler = new TimeoutScheduler("script-timeout-");
 
-    RepositoryMethodsHandler(Class<?> repositoryClass, ApplicationContext ctx, Map<Class<? extends Annotation>, AnnotationConfig> customAnnotationsConfig) {
-        this.ctx = ctx;
+
+    RepositoryMethodsHandler(Class<?> repositoryClass, ApplicationContext ctx, Map<Class<? extends Annotation>, AnnotationConfig> customAnnotationsConfig,
+                             ScriptMetricsRegistry metricsRegistry) {
         this.repositoryClass = repositoryClass;
         this.customAnnotationsConfig = customAnnotationsConfig;
-        List<Method> scriptedMethods = Arrays.stream(repositoryClass.getMethods())
+        ScriptRepository repositoryConfig = AnnotationUtils.findAnnotation(repositoryClass, ScriptRepository.class);
+        if (repositoryConfig == null) {
+            throw new IllegalArgumentException("Script repositories must be annotated with @ScriptRepository.");
+        }
+        Executor repositoryExecutor;
+        if (StringUtils.hasText(repositoryConfig.executorBeanName())) {
+            repositoryThreadPool = null;
+            repositoryExecutor = ctx.getBean(repositoryConfig.executorBeanName(), Executor.class);
+        } else {
+            repositoryThreadPool = createThreadPool(repositoryConfig);
+            repositoryExecutor = repositoryThreadPool;
+        }
+        long missingScriptTtl = ctx.getEnvironment().getProperty(
+                "script.repository.missing.script.ttl", Long.class, DEFAULT_MISSING_SCRIPT_TTL);
+        boolean timingsEnabled = ctx.getEnvironment().getProperty("script.repository.timings.enabled", Boolean.class, false);
+        boolean resourcesEnabled = ctx.getEnvironment().getProperty("script.repository.resources.enabled", Boolean.class, false);
+        ConcurrencyLimiter repositoryLimiter = repositoryConfig.maxConcurrentCalls() > 0
+                ? new ConcurrencyLimiter(repositoryClass.getName(), repositoryConfig.maxConcurrentCalls())
+                : null;
+        Map<Method, MethodInvocationPlan> plans = new HashMap<>();
+        Arrays.stream(repositoryClass.getMethods())
                 .filter(this::isScriptedMethod)
-                .collect(Collectors.toList());
-        scriptedMethods.forEach(method -> methodScriptInvocationMetadata.computeIfAbsent(method, this::getAnnotationConfig));
+                .forEach(method -> plans.put(method,
+                        new MethodInvocationPlan(method, getAnnotationConfig(method), ctx, repositoryExecutor, missingScriptTtl,
+                                metricsRegistry.register(method), timingsEnabled, resourcesEnabled, repositoryLimiter)));
+        invocationPlans = Collections.unmodifiableMap(plans);
+        Map<Method, MethodHandle> handles = new HashMap<>();
+        Arrays.stream(repositoryClass.getMethods())
+                .filter(method -> method.isDefault() && !plans.containsKey(method))
+                .forEach(method -> {
+                    MethodHandle handle = MethodInvocationPlan.createDefaultMethodHandle(method);
+                    if (handle != null) {
+                        handles.put(method, handle);
+                    }
+                });
+        defaultMethodHandles = Collections.unmodifiableMap(handles);
+    }
+
+    /**
+     * Creates thread pool that will execute scripts of this repository only.
+     *
+     * @param repositoryConfig repository annotation with thread pool parameters.
+     * @return repository thread pool.
+     */
+    private ExecutorService createThreadPool(ScriptRepository repositoryConfig) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(repositoryClass.getSimpleName() + "-");
+        threadFactory.setDaemon(true);
+        int queueCapacity = repositoryConfig.queueCapacity();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        RejectedExecutionHandler rejectionHandler = repositoryConfig.rejectionPolicy() == RejectionPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.AbortPolicy();
+        log.debug("Creating thread pool for {}: core size {}, max size {}, queue capacity {}, rejection policy {}",
+                repositoryClass.getName(), repositoryConfig.corePoolSize(), repositoryConfig.maxPoolSize(),
+                queueCapacity, repositoryConfig.rejectionPolicy());
+        return new ThreadPoolExecutor(repositoryConfig.corePoolSize(), repositoryConfig.maxPoolSize(),
+                60L, TimeUnit.SECONDS, queue, threadFactory, rejectionHandler);
     }
 
     /**
      * Main method that process script repository methods invocations.
-     * On the first stage it checks if the method is scripted by checking annotation
-     * (either ScriptMethod or pre-configured one) presence. If the method is not scripted, its invocation
-     * is delegated to an Object instance. Otherwise we get script provider, script evaluator and
-     * let them do their work.
+     * On the first stage it looks up precomputed invocation plan, it exists only for scripted methods (annotated
+     * with either ScriptMethod or pre-configured annotation). If the method is not scripted, it is invoked
+     * with {@link #invokeNotScriptedMethod(Object, Method, Object[])}. Otherwise we get script provider,
+     * script evaluator and let them do their work.
      *
      * @see InvocationHandler#invoke(Object, Method, Object[])
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        log.trace("Class: {}, Proxy: {}, Method: {}, Args: {}",
-                method.getDeclaringClass().getName(), proxy.getClass(), method.getName(), args);
+        if (log.isTraceEnabled()) {
+            log.trace("Class: {}, Proxy: {}, Method: {}, Args: {}",
+                    method.getDeclaringClass().getName(), proxy.getClass(), method.getName(), args);
+        }
+
+        MethodInvocationPlan plan = invocationPlans.get(method);
 
-        if (!isScriptedMethod(method)) {
-            return method.invoke(defaultDelegate, args);
+        if (plan == null) {
+            return invokeNotScriptedMethod(proxy, method, args);
+        }
+
+        return invokeScriptedMethod(plan, proxy, args);
+    }
+
+    /**
+     * Implements methods that are not scripted. {@code equals} and {@code hashCode} use proxy identity,
+     * {@code toString} names the repository interface, default methods run their interface body on the proxy.
+     * JDK and generated proxies both call this method, so proxy mode does not change their behavior.
+     *
+     * @throws IllegalArgumentException if the method is neither an {@link Object} method nor a default method.
+     */
+    Object invokeNotScriptedMethod(Object proxy, Method method, Object[] args) throws Throwable {
+        if (ReflectionUtils.isEqualsMethod(method)) {
+            return proxy == args[0];
+        }
+        if (ReflectionUtils.isHashCodeMethod(method)) {
+            return System.identityHashCode(proxy);
         }
+        if (ReflectionUtils.isToStringMethod(method)) {
+            return repositoryClass.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+        MethodHandle handle = defaultMethodHandles.get(method);
+        if (handle != null) {
+            Object[] arguments = args != null ? args : NO_ARGS;
+            return (Object) handle.invokeExact(proxy, arguments);
+        }
+        if (method.isDefault()) {
+            try {
+                return method.invoke(Reflect.on(new Object()).as(repositoryClass), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        throw new IllegalArgumentException(String.format("Method %s of %s is not a scripted method",
+                method.getName(), repositoryClass.getName()));
+    }
 
-        AnnotationConfig invocationInfo = methodScriptInvocationMetadata.get(method);
+    /**
+     * Executes scripted method according to its invocation plan. Generated proxies call this method directly
+     * with the plan bound to the proxy method, so no plan lookup is needed.
+     */
+    Object invokeScriptedMethod(MethodInvocationPlan plan, Object proxy, Object[] args) {
+        long start = System.nanoTime();
+        plan.metrics.recordInvocation();
+
+        ScriptProvider provider = plan.getProvider();
+        ScriptEvaluator evaluator = plan.getEvaluator();
+        Map<String, Object> binds = plan.createParameterMap(args);
+
+        if (plan.concurrencyLimiter != null || plan.repositoryLimiter != null) {
+            return invokeWithConcurrencyLimit(plan, proxy, args, provider, evaluator, binds, start);
+        }
+        return invokePermitted(plan, proxy, args, provider, evaluator, binds, start);
+    }
 
-        long timeout = invocationInfo.timeout;
+    /**
+     * Invokes the method if there is a free slot within concurrency limits of the method and the repository,
+     * the slot is held until the result (or the future for asynchronous methods) is complete. The caller of
+     * a synchronous method waits for a method slot if the method has a wait queue, asynchronous methods
+     * and the repository limit never wait, so callers expecting a future are not blocked. Rejected invocations
+     * are reported with {@link EvaluationStatus#REJECTED} status or {@link ConcurrencyLimitExceededException}.
+     * Limits are checked first, so neither the circuit breaker nor memoized results see rejected invocations.
+     */
+    @SuppressWarnings("unchecked")
+    private Object invokeWithConcurrencyLimit(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                              ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        if (!acquireConcurrencySlot(plan)) {
+            return rejectByConcurrencyLimit(plan);
+        }
+        long acquired = System.nanoTime();
+        Object result;
+        try {
+            result = invokePermitted(plan, proxy, args, provider, evaluator, binds, start);
+        } catch (RuntimeException | Error e) {
+            releaseConcurrencySlot(plan, System.nanoTime() - acquired);
+            throw e;
+        }
+        if (plan.async) {
+            ((CompletableFuture<Object>) result).whenComplete((value, throwable) ->
+                    releaseConcurrencySlot(plan, System.nanoTime() - acquired));
+        } else {
+            releaseConcurrencySlot(plan, System.nanoTime() - acquired);
+        }
+        return result;
+    }
 
-        log.trace("Submitting task for execution, timeout: {} method: {}", timeout, method);
+    private boolean acquireConcurrencySlot(MethodInvocationPlan plan) {
+        if (plan.concurrencyLimiter != null && !plan.concurrencyLimiter.tryAcquire(!plan.async)) {
+            return false;
+        }
+        if (plan.repositoryLimiter != null && !plan.repositoryLimiter.tryAcquire(false)) {
+            if (plan.concurrencyLimiter != null) {
+                plan.concurrencyLimiter.release(-1L);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseConcurrencySlot(MethodInvocationPlan plan, long latencyNanos) {
+        if (plan.repositoryLimiter != null) {
+            plan.repositoryLimiter.release(latencyNanos);
+        }
+        if (plan.concurrencyLimiter != null) {
+            plan.concurrencyLimiter.release(latencyNanos);
+        }
+    }
+
+    private Object rejectByConcurrencyLimit(MethodInvocationPlan plan) {
+        log.debug("Concurrency limit of {} is reached", plan.method);
+        plan.metrics.recordRejectedCall();
+        ConcurrencyLimitExceededException error = new ConcurrencyLimitExceededException(
+                String.format("Concurrency limit of %s is reached", plan.method.getName()));
+        if (plan.wrapResult) {
+            ScriptResult<Object> rejected = new ScriptResult<>(null, EvaluationStatus.REJECTED, error);
+            return plan.async ? CompletableFuture.completedFuture(rejected) : rejected;
+        }
+        if (!plan.async) {
+            throw createEvaluationException(error);
+        }
+        CompletableFuture<Object> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(createEvaluationException(error));
+        return rejected;
+    }
+
+    private Object invokePermitted(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                   ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        if (plan.circuitBreaker != null) {
+            return invokeWithCircuitBreaker(plan, proxy, args, provider, evaluator, binds, start);
+        }
+        return execute(plan, proxy, args, provider, evaluator, binds, start);
+    }
+
+    private Object execute(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                           ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        if (plan.async) {
+            return invokeAsync(plan, proxy, args, provider, evaluator, binds, start);
+        }
+
+        if (plan.callerThread) {
+            return invokeInCallerThread(plan, proxy, args, provider, evaluator, binds, start);
+        }
+
+        return awaitResult(invokeAsync(plan, proxy, args, provider, evaluator, binds, start), plan, provider, evaluator);
+    }
+
+    /**
+     * Invokes the method if its circuit breaker permits and reports the outcome to the breaker. Failed invocations
+     * include timeouts and failed {@link ScriptResult}s. When the breaker is open, the default method is invoked
+     * if it exists, otherwise the invocation fails with {@link CircuitBreakerOpenException} without touching
+     * the provider and the executor. Memoized results are looked up within the execution, so they are not
+     * returned while the breaker is open.
+     */
+    @SuppressWarnings("unchecked")
+    private Object invokeWithCircuitBreaker(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                            ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        CircuitBreaker breaker = plan.circuitBreaker;
+        long permit = breaker.acquire();
+        if (permit == CircuitBreaker.NOT_PERMITTED) {
+            return rejectByCircuitBreaker(plan, proxy, args, start);
+        }
+        Object result;
+        try {
+            result = execute(plan, proxy, args, provider, evaluator, binds, start);
+        } catch (RuntimeException | Error e) {
+            breaker.record(permit, System.nanoTime() - start, true);
+            throw e;
+        }
+        if (plan.async) {
+            ((CompletableFuture<Object>) result).whenComplete((value, throwable) ->
+                    breaker.record(permit, System.nanoTime() - start, throwable != null || isFailedResult(value)));
+        } else {
+            breaker.record(permit, System.nanoTime() - start, isFailedResult(result));
+        }
+        return result;
+    }
+
+    private boolean isFailedResult(Object value) {
+        return value instanceof ScriptResult && ((ScriptResult<?>) value).getStatus() == EvaluationStatus.FAILURE;
+    }
+
+    private Object rejectByCircuitBreaker(MethodInvocationPlan plan, Object proxy, Object[] args, long start) {
+        log.trace("Circuit breaker of {} is open", plan.method);
+        plan.metrics.recordShortCircuitedCall();
+        if (plan.defaultMethod != null) {
+            plan.metrics.recordDefaultMethodCall();
+            Object value;
+            try {
+                value = invokeDefaultMethod(plan, proxy, args);
+            } catch (RuntimeException e) {
+                plan.metrics.recordFailure(System.nanoTime() - start, false);
+                throw e;
+            }
+            plan.metrics.recordSuccess(System.nanoTime() - start);
+            return value;
+        }
+        plan.metrics.recordFailure(System.nanoTime() - start, false);
+        CircuitBreakerOpenException error = new CircuitBreakerOpenException(
+                String.format("Circuit breaker of %s is open", plan.method.getName()));
+        if (plan.wrapResult) {
+            ScriptResult<Object> failed = createFailedResult(error);
+            return plan.async ? CompletableFuture.completedFuture(failed) : failed;
+        }
+        if (!plan.async) {
+            throw createEvaluationException(error);
+        }
+        CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(createEvaluationException(error));
+        return failed;
+    }
+
+    /**
+     * Waits for the result of synchronous scripted method executed in the thread pool. Timeout is enforced
+     * by the timeout scheduler that completes the future, so here we just wait for completion.
+     */
+    private Object awaitResult(CompletableFuture<Object> result, MethodInvocationPlan plan, ScriptProvider provider,
+                               ScriptEvaluator evaluator) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            //The future is completed exceptionally with ScriptEvaluationException only,
+            //throwing new one to keep caller's stack trace
+            Throwable cause = e.getCause() instanceof ScriptEvaluationException ? e.getCause().getCause() : e.getCause();
+            throw createEvaluationException(cause);
+        } catch (InterruptedException e) {
+            //Caller does not wait for the result anymore, so the script should be stopped
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            return handleError(e, plan, provider, evaluator, true);
+        }
+    }
+
+    /**
+     * Executes scripted method in the caller's thread without executor and futures.
+     * Errors are processed the same way as in case of execution in executor.
+     */
+    private Object invokeInCallerThread(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                        ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        log.trace("Executing script in caller thread, method: {}", plan.method);
+        InterruptibleExecution execution = new InterruptibleExecution();
+        ResourceAccount account = plan.accountResources ? new ResourceAccount(plan, violation -> execution.cancel()) : null;
+        try {
+            Object value = account != null
+                    ? execution.run(() -> executeWithFallback(plan, proxy, args, provider, evaluator, binds, NOT_QUEUED, account))
+                    : executeWithFallback(plan, proxy, args, provider, evaluator, binds, NOT_QUEUED, null);
+            if (account != null && account.getViolation() != null) {
+                throw account.getViolation();
+            }
+            plan.metrics.recordSuccess(System.nanoTime() - start);
+            return value;
+        } catch (Throwable ex) {
+            plan.metrics.recordFailure(System.nanoTime() - start, false);
+            if (account != null && account.getViolation() != null) {
+                //Reported the same way as timeout, the script error is caused by the interruption
+                return handleError(account.getViolation(), plan, provider, evaluator, true);
+            }
+            //Wrapping the same way as Future.get() does, so error is the same regardless of execution mode
+            return handleError(new ExecutionException(ex), plan, provider, evaluator, true);
+        }
+    }
 
-        CompletableFuture<Object> scriptExecutionChain = null;
-        ScriptProvider provider = (ScriptProvider) ctx.getBean(invocationInfo.provider);
-        ScriptEvaluator evaluator = (ScriptEvaluator) ctx.getBean(invocationInfo.evaluator);
-        Map<String, Object> binds = invocationInfo.createParameterMap(method, args);
+    /**
+     * Gets script from provider and evaluates it, falls back to default method if there is no script.
+     */
+    private Object executeWithFallback(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                       ScriptEvaluator evaluator, Map<String, Object> binds, long submittedAt, ResourceAccount account) {
+        if (account == null) {
+            return executeWithFallback(plan, proxy, args, provider, evaluator, binds, submittedAt);
+        }
+        account.start();
+        Object value;
+        try {
+            value = executeWithFallback(plan, proxy, args, provider, evaluator, binds, submittedAt);
+        } finally {
+            account.stop();
+        }
+        if (value instanceof ScriptResult && plan.wrapResult) {
+            ScriptResult<?> result = (ScriptResult<?>) value;
+            return new ScriptResult<>(result.getValue(), result.getStatus(), result.getError(), result.getTimings(), account.getUsage());
+        }
+        return value;
+    }
 
+    private Object executeWithFallback(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                       ScriptEvaluator evaluator, Map<String, Object> binds, long submittedAt) {
+        if (plan.defaultMethod != null && plan.isScriptMissing()) {
+            log.trace("Script for {} is known to be missing, invoking default method", plan.method);
+            plan.metrics.recordDefaultMethodCall();
+            return invokeDefaultMethod(plan, proxy, args);
+        }
         try {
-            scriptExecutionChain = CompletableFuture
-                    .supplyAsync(() -> provider.getScript(method))
-                    .thenApply(scriptSource -> executeScriptedMethod(scriptSource, method, binds, evaluator))
-                    .exceptionally(throwable -> tryDefaultMethod(throwable, method, args, repositoryClass));
+            if (plan.collectTimings) {
+                return executeWithTimings(plan, args, binds, provider, evaluator, submittedAt);
+            }
+            ScriptSource scriptSource = provider.getScript(plan.method);
+            return executeScriptedMethod(scriptSource, plan, args, binds, evaluator);
+        } catch (Throwable throwable) {
+            return tryDefaultMethod(throwable, plan, proxy, args);
+        }
+    }
+
+    /**
+     * Executes scripted method in the thread pool. Returned future is completed by the script execution
+     * or by the timeout scheduler whichever comes first, the caller's thread is not blocked. Errors are reported
+     * the same way as for synchronous methods: either as a failed {@link ScriptResult} or as
+     * {@link ScriptEvaluationException} the future is completed with.
+     */
+    private CompletableFuture<Object> invokeAsync(MethodInvocationPlan plan, Object proxy, Object[] args, ScriptProvider provider,
+                                                  ScriptEvaluator evaluator, Map<String, Object> binds, long start) {
+        log.trace("Submitting task for execution, timeout: {} method: {}", plan.timeout, plan.method);
+
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        InterruptibleExecution execution = new InterruptibleExecution();
+        ResourceAccount account = plan.accountResources ? new ResourceAccount(plan, violation -> {
+            if (completeWithError(result, violation, plan, start)) {
+                execution.cancel();
+                CompletableFuture.runAsync(() -> cancelExecution(plan, provider, evaluator));
+            }
+        }) : null;
 
-            if (timeout > 0) {
-                return scriptExecutionChain.get(timeout, TimeUnit.MILLISECONDS);
+        CompletableFuture<Object> scriptExecutionChain;
+        try {
+            if (plan.callerThread) {
+                scriptExecutionChain = toFuture(execution.run(() -> executeWithFallback(plan, proxy, args, provider, evaluator, binds, NOT_QUEUED, account)));
             } else {
-                return scriptExecutionChain.get();
+                long submittedAt = plan.collectTimings ? System.nanoTime() : NOT_QUEUED;
+                scriptExecutionChain = CompletableFuture
+                        .supplyAsync(() -> execution.run(() -> executeWithFallback(plan, proxy, args, provider, evaluator, binds, submittedAt, account)), plan.executor)
+                        .thenCompose(this::toFuture);
             }
         } catch (Throwable ex) {
-            log.error("Error during script evaluation", ex);
-            if (scriptExecutionChain != null && scriptExecutionChain.isCompletedExceptionally()) {
-                cancelExecution(invocationInfo, provider, evaluator);
+            scriptExecutionChain = new CompletableFuture<>();
+            scriptExecutionChain.completeExceptionally(ex);
+        }
+
+        scriptExecutionChain.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                if (result.complete(value)) {
+                    plan.metrics.recordSuccess(System.nanoTime() - start);
+                }
+            } else {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable;
+                if (completeWithError(result, new ExecutionException(cause), plan, start)) {
+                    cancelExecution(plan, provider, evaluator);
+                }
             }
-            if (shouldWrapResult(method)) {
-                return new ScriptResult<>(null, EvaluationStatus.FAILURE, ex);
-            } else
-                //Wrapping into RuntimeException to avoid confusing UndeclaredThrowableException throw
-                throw new ScriptEvaluationException(
-                        String.format("Error during script evaluation: %s", ex.getClass().getSimpleName()), ex);
+        });
+
+        if (plan.timeout > 0) {
+            timeoutScheduler.watch(result, plan.timeout, () -> {
+                TimeoutException timeoutException = new TimeoutException(
+                        String.format("Script execution timeout %d ms exceeded", plan.timeout));
+                if (completeWithError(result, timeoutException, plan, start)) {
+                    log.debug("Interrupting script execution of {}, interrupted: {}", plan.method, execution.cancel());
+                    //Cancellation hooks may close resources, they should not delay other timeouts
+                    CompletableFuture.runAsync(() -> cancelExecution(plan, provider, evaluator));
+                }
+            });
+        }
+
+        //Cancellation of returned future by the caller stops the script as well
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                plan.metrics.recordFailure(System.nanoTime() - start, false);
+                execution.cancel();
+            }
+        });
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> toFuture(Object value) {
+        //Default methods of asynchronous methods return futures themselves
+        if (value instanceof CompletionStage) {
+            return ((CompletionStage<Object>) value).toCompletableFuture();
+        }
+        return CompletableFuture.completedFuture(value);
+    }
+
+    private boolean completeWithError(CompletableFuture<Object> result, Throwable ex, MethodInvocationPlan plan, long start) {
+        if (result.isDone()) {
+            return false;
+        }
+        log.error("Error during script evaluation", ex);
+        boolean completed = plan.wrapResult
+                ? result.complete(createFailedResult(ex))
+                : result.completeExceptionally(createEvaluationException(ex));
+        if (completed) {
+            plan.metrics.recordFailure(System.nanoTime() - start, ex instanceof TimeoutException);
+        }
+        return completed;
+    }
+
+    private Object handleError(Throwable ex, MethodInvocationPlan plan, ScriptProvider provider, ScriptEvaluator evaluator, boolean cancel) {
+        log.error("Error during script evaluation", ex);
+        if (cancel) {
+            cancelExecution(plan, provider, evaluator);
         }
+        if (plan.wrapResult) {
+            return createFailedResult(ex);
+        } else
+            //Wrapping into RuntimeException to avoid confusing UndeclaredThrowableException throw
+            throw createEvaluationException(ex);
     }
 
-    private void cancelExecution(AnnotationConfig invocationInfo, ScriptProvider provider, ScriptEvaluator evaluator) {
+    private ScriptResult<Object> createFailedResult(Throwable ex) {
+        return new ScriptResult<>(null, EvaluationStatus.FAILURE, ex);
+    }
+
+    private ScriptEvaluationException createEvaluationException(Throwable ex) {
+        return new ScriptEvaluationException(
+                String.format("Error during script evaluation: %s", ex.getClass().getSimpleName()), ex);
+    }
+
+    private void cancelExecution(MethodInvocationPlan plan, ScriptProvider provider, ScriptEvaluator evaluator) {
         if (provider instanceof TimeoutAware) {
-            log.trace("Cancelling provider {} ", invocationInfo.provider);
-            ((TimeoutAware)provider).cancel();
+            log.trace("Cancelling provider {} ", plan.config.provider);
+            ((TimeoutAware)provider).cancel(plan.method);
         }
         if (evaluator instanceof TimeoutAware) {
-            log.trace("Cancelling evaluator {} ", invocationInfo.provider);
-            ((TimeoutAware)evaluator).cancel();
+            log.trace("Cancelling evaluator {} ", plan.config.evaluator);
+            ((TimeoutAware)evaluator).cancel(plan.method);
         }
     }
 
-    private Object executeScriptedMethod(ScriptSource script, Method method, Map<String, Object> binds, ScriptEvaluator evaluator) {
-        Object scriptResult = evaluator.evaluate(script, binds);
-        if (shouldWrapResult(method)) {
+    /**
+     * Executes scripted method measuring time of each execution phase. Compilation time is reported by evaluators
+     * through {@link CompilationTimer} and excluded from evaluation time.
+     */
+    private ScriptResult<Object> executeWithTimings(MethodInvocationPlan plan, Object[] args, Map<String, Object> binds,
+                                                    ScriptProvider provider, ScriptEvaluator evaluator, long submittedAt) {
+        long started = System.nanoTime();
+        ScriptSource scriptSource = provider.getScript(plan.method);
+        long fetched = System.nanoTime();
+        CompilationTimer compilationTimer = CompilationTimer.start();
+        Object scriptResult;
+        try {
+            scriptResult = evaluateInvocation(scriptSource, plan, args, binds, evaluator);
+        } finally {
+            compilationTimer.stop();
+        }
+        long evaluated = System.nanoTime();
+        ScriptTimings timings = new ScriptTimings(
+                submittedAt == NOT_QUEUED ? 0L : started - submittedAt,
+                fetched - started,
+                compilationTimer.getCompileNanos(),
+                evaluated - fetched - compilationTimer.getCompileNanos(),
+                compilationTimer.isCompiled());
+        return new ScriptResult<>(scriptResult, EvaluationStatus.SUCCESS, null, timings);
+    }
+
+    private Object executeScriptedMethod(ScriptSource script, MethodInvocationPlan plan, Object[] args, Map<String, Object> binds,
+                                         ScriptEvaluator evaluator) {
+        Object scriptResult = evaluateInvocation(script, plan, args, binds, evaluator);
+        if (plan.wrapResult) {
             return new ScriptResult<>(scriptResult, EvaluationStatus.SUCCESS, null);
         } else {
             return scriptResult;
         }
     }
 
+    /**
+     * Evaluates the script of an invocation. If results of the method are memoized, returns the result memoized
+     * for equal arguments and the same script version, otherwise evaluates the script and memoizes its value
+     * or error. The version is taken from the source the script is evaluated with, so a result is never memoized
+     * for another version. This runs in the execution thread, so fetching the script for a memoized result is covered
+     * by the timeout, cancellation and budgets of the method.
+     */
+    private Object evaluateInvocation(ScriptSource script, MethodInvocationPlan plan, Object[] args, Map<String, Object> binds,
+                                      ScriptEvaluator evaluator) {
+        if (plan.memo == null) {
+            return evaluate(script, plan, binds, evaluator);
+        }
+        List<Object> key = MemoizedResults.createKey(args);
+        String version = plan.memo.getVersion(script);
+        if (version != null) {
+            MemoizedResults.Result memoized = plan.memo.get(key, version);
+            if (memoized != null) {
+                log.trace("Returning memoized result of {}", plan.method);
+                plan.metrics.recordMemoizedCall();
+                if (memoized.error != null) {
+                    throw memoized.error;
+                }
+                return memoized.value;
+            }
+        }
+        Object value;
+        try {
+            value = evaluate(script, plan, binds, evaluator);
+        } catch (RuntimeException e) {
+            //Errors of interrupted evaluations are caused by timeouts or budgets, not by the arguments
+            if (!Thread.currentThread().isInterrupted()) {
+                String evaluated = version != null ? version : plan.memo.readVersion(script);
+                if (evaluated != null) {
+                    plan.memo.putFailure(key, evaluated, e);
+                }
+            }
+            throw e;
+        }
+        String evaluated = version != null ? version : plan.memo.readVersion(script);
+        if (evaluated != null) {
+            plan.memo.putValue(key, evaluated, value);
+        }
+        return value;
+    }
+
+    private Object evaluate(ScriptSource script, MethodInvocationPlan plan, Map<String, Object> binds, ScriptEvaluator evaluator) {
+        if (evaluator instanceof TypedScriptEvaluator) {
+            return ((TypedScriptEvaluator) evaluator).evaluate(script, binds, plan.signature);
+        }
+        return evaluator.evaluate(script, binds);
+    }
+
 
     /**
      * Checks whether or not this method is scripted. It should be either annotated with
@@ -188,20 +741,37 @@ class RepositoryMethodsHandler implements InvocationHandler, Serializable {
 
             Long timeout = methodTimeout != null ? methodTimeout : annotationXmlConfig.timeout;
 
-            return new AnnotationConfig(ScriptMethod.class,
-                    annotationXmlConfig.provider,
-                    annotationXmlConfig.evaluator,
-                    timeout,
-                    annotationXmlConfig.description);
+            return annotationXmlConfig.toBuilder()
+                    .scriptAnnotation(ScriptMethod.class)
+                    .timeout(timeout)
+                    .build();
         } else { //If method is configured with custom annotation annotated with ScriptMethod
 
             Long timeout = methodTimeout != null ? methodTimeout : annotation.timeout();
 
-            return new AnnotationConfig(ScriptMethod.class,
-                    annotation.providerBeanName(),
-                    annotation.evaluatorBeanName(),
-                    timeout,
-                    annotation.description());
+            return AnnotationConfig.builder(ScriptMethod.class)
+                    .provider(annotation.providerBeanName())
+                    .evaluator(annotation.evaluatorBeanName())
+                    .timeout(timeout)
+                    .description(annotation.description())
+                    .executor(annotation.executorBeanName())
+                    .executionMode(annotation.executionMode())
+                    .memoizeSize(annotation.memoizeSize())
+                    .memoizeTtl(annotation.memoizeTtl())
+                    .memoizeFailures(annotation.memoizeFailures())
+                    .cpuBudget(annotation.cpuBudget())
+                    .allocationBudget(annotation.allocationBudget())
+                    .circuitBreaker(CircuitBreakerConfig.create(annotation.circuitBreakerWindow(),
+                            annotation.circuitBreakerFailureRate(),
+                            annotation.circuitBreakerSlowCallDuration(),
+                            annotation.circuitBreakerSlowCallRate(),
+                            annotation.circuitBreakerOpenDuration(),
+                            annotation.circuitBreakerHalfOpenCalls()))
+                    .concurrencyLimit(ConcurrencyLimitConfig.create(annotation.maxConcurrentCalls(),
+                            annotation.maxWaitingCalls(),
+                            annotation.maxWaitTime(),
+                            annotation.concurrencyLatencyThreshold()))
+                    .build();
         }
     }
 
@@ -217,44 +787,114 @@ class RepositoryMethodsHandler implements InvocationHandler, Serializable {
     /**
      * Default interface method invocation.
      * @param cause          Why this method was called.
-     * @param method         Interface default method to be invoked.
+     * @param plan           Invocation plan of the method which default implementation to be invoked.
+     * @param proxy          Repository proxy the method was called on.
      * @param args           Method's arguments.
-     * @param interfaceClass interface which default method to be invoked.
      * @return Default interface method invocation result.
      * @throws UnsupportedOperationException in case default method is not found.
-     * @link https://blog.jooq.org/2018/03/28/correct-reflective-access-to-interface-default-methods-in-java-8-9-10/
      */
-    private Object tryDefaultMethod(Throwable cause, Method method, Object[] args, Class<?> interfaceClass) {
+    private Object tryDefaultMethod(Throwable cause, MethodInvocationPlan plan, Object proxy, Object[] args) {
 
         if (!(cause instanceof ScriptNotFoundException || cause.getCause() instanceof ScriptNotFoundException)) {
             throw new UnsupportedOperationException(
-                    String.format("Error executing default method %s", method), cause);
+                    String.format("Error executing default method %s", plan.method), cause);
         }
 
-        if (!method.isDefault()) {
+        if (plan.defaultMethod == null) {
             throw new UnsupportedOperationException(
-                    String.format("Method %s should have either script implementation or be default", method));
+                    String.format("Method %s should have either script implementation or be default", plan.method));
         }
 
+        plan.markScriptMissing();
+        plan.metrics.recordDefaultMethodCall();
+        return invokeDefaultMethod(plan, proxy, args);
+    }
+
+    /**
+     * Invokes interface default method on the repository proxy using cached method handle. If the handle
+     * is not available, the method is invoked on a temporary proxy.
+     * @link https://blog.jooq.org/2018/03/28/correct-reflective-access-to-interface-default-methods-in-java-8-9-10/
+     */
+    private Object invokeDefaultMethod(MethodInvocationPlan plan, Object proxy, Object[] args) {
         try {
-            Object typedProxyWithDefaultMethod = Reflect.on(new Object()).as(interfaceClass);
-            Method defaultMethod = interfaceClass.
-                    getMethod(method.getName(), method.getParameterTypes());
-            return defaultMethod.invoke(typedProxyWithDefaultMethod, args);
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            if (plan.defaultMethodHandle != null) {
+                Object[] arguments = args != null ? args : NO_ARGS;
+                return (Object) plan.defaultMethodHandle.invokeExact(proxy, arguments);
+            }
+            Object typedProxyWithDefaultMethod = Reflect.on(new Object()).as(repositoryClass);
+            return plan.defaultMethod.invoke(typedProxyWithDefaultMethod, args);
+        } catch (Throwable e) {
             throw new UnsupportedOperationException(String.format("Default method %s cannot be invoked on %s: %s"
-                    , method.getName(), interfaceClass.getName(), e.getMessage())
+                    , plan.method.getName(), repositoryClass.getName(), e.getMessage())
                     , e);
         }
     }
 
-    private boolean shouldWrapResult(Method method) {
-        Class<?> returnType = method.getReturnType();
-        return ScriptResult.class.isAssignableFrom(returnType);
+    /**
+     * Fetches and compiles script of the scripted method, then evaluates it with sample arguments if they are
+     * declared with {@link com.haulmont.scripting.repository.WarmUp} annotation. Script is evaluated directly
+     * by the evaluator, so warm-up invocations are not counted in method metrics.
+     *
+     * @param method scripted method.
+     * @return number of warm-up evaluations.
+     * @throws ScriptNotFoundException if there is no script for the method.
+     */
+    int warmUp(Method method) {
+        MethodInvocationPlan plan = invocationPlans.get(method);
+        ScriptSource scriptSource = plan.getProvider().getScript(method);
+        ScriptEvaluator evaluator = plan.getEvaluator();
+        if (evaluator instanceof TypedScriptEvaluator) {
+            ((TypedScriptEvaluator) evaluator).compile(scriptSource, plan.signature);
+        } else if (evaluator instanceof CompilingScriptEvaluator) {
+            ((CompilingScriptEvaluator) evaluator).compile(scriptSource);
+        }
+        if (plan.warmUp == null) {
+            return 0;
+        }
+        Object[] args = getWarmUpArguments(plan);
+        for (int i = 0; i < plan.warmUp.invocations(); i++) {
+            evaluate(scriptSource, plan, plan.createParameterMap(args), evaluator);
+        }
+        return Math.max(plan.warmUp.invocations(), 0);
     }
 
+    private Object[] getWarmUpArguments(MethodInvocationPlan plan) {
+        String[] values = plan.warmUp.args();
+        int parameterCount = plan.method.getParameterCount();
+        if (values.length != parameterCount) {
+            throw new IllegalArgumentException(String.format("Method %s has %d parameters, but %d warm-up arguments are declared",
+                    plan.method.getName(), parameterCount, values.length));
+        }
+        ConversionService conversionService = DefaultConversionService.getSharedInstance();
+        Object[] args = new Object[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            args[i] = conversionService.convert(values[i], TypeDescriptor.valueOf(String.class),
+                    new TypeDescriptor(new MethodParameter(plan.method, i)));
+        }
+        return args;
+    }
+
+    /**
+     * Stops repository thread pool if the repository has its own one.
+     */
+    void shutdown() {
+        if (repositoryThreadPool != null) {
+            log.debug("Shutting down thread pool for {}", repositoryClass.getName());
+            repositoryThreadPool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param method repository method.
+     * @return invocation plan of the method or null if the method is not scripted.
+     */
+    MethodInvocationPlan getInvocationPlan(Method method) {
+        return invocationPlans.get(method);
+    }
 
     Map<Method, AnnotationConfig> getMethodScriptInvocationMetadata() {
-        return Collections.unmodifiableMap(methodScriptInvocationMetadata);
+        Map<Method, AnnotationConfig> metadata = new HashMap<>();
+        invocationPlans.forEach((method, plan) -> metadata.put(method, plan.config));
+        return Collections.unmodifiableMap(metadata);
     }
 }
@@ -0,0 +1,201 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.evaluator.ResourceBudgetExceededException;
+import com.haulmont.scripting.repository.evaluator.ScriptResourceUsage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Consumer;
+
+/**
+ * Measures CPU time and memory allocated by the thread that executes one scripted method invocation and enforces
+ * the method's budgets. Usage is measured with {@link ThreadMXBean}, so the thread can be checked from the watchdog
+ * thread while the script is running. The account is checked once more when the execution finishes, so short
+ * invocations cannot slip between watchdog checks.
+ */
+class ResourceAccount {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceAccount.class);
+
+    private static final long NOT_MEASURED = -1L;
+
+    private final MethodInvocationPlan plan;
+
+    private final Consumer<ResourceBudgetExceededException> onBudgetExceeded;
+
+    private Thread worker; //guarded by this
+
+    private long startCpuNanos;
+
+    private long startAllocatedBytes;
+
+    private long cpuNanos = NOT_MEASURED; //guarded by this, final usage after the execution is finished
+
+    private long allocatedBytes = NOT_MEASURED; //guarded by this
+
+    private ResourceBudgetExceededException violation; //guarded by this
+
+    /**
+     * @param plan             invocation plan of the method with budgets.
+     * @param onBudgetExceeded action to stop the execution, it is run once either in watchdog or in execution thread.
+     */
+    ResourceAccount(MethodInvocationPlan plan, Consumer<ResourceBudgetExceededException> onBudgetExceeded) {
+        this.plan = plan;
+        this.onBudgetExceeded = onBudgetExceeded;
+    }
+
+    /**
+     * Starts measurement in the current thread, the thread is watched if the method has budgets.
+     */
+    void start() {
+        Thread thread = Thread.currentThread();
+        synchronized (this) {
+            worker = thread;
+            startCpuNanos = Meter.getCpuNanos(thread);
+            startAllocatedBytes = Meter.getAllocatedBytes(thread);
+        }
+        if (plan.hasResourceBudget()) {
+            ResourceWatchdog.INSTANCE.watch(this);
+        }
+    }
+
+    /**
+     * Finishes measurement in the execution thread, checks budgets and records usage in method metrics.
+     */
+    void stop() {
+        ResourceWatchdog.INSTANCE.unwatch(this);
+        check();
+        synchronized (this) {
+            cpuNanos = getCpuNanos();
+            allocatedBytes = getAllocatedBytes();
+            worker = null;
+        }
+        plan.metrics.recordResourceUsage(cpuNanos, allocatedBytes);
+    }
+
+    /**
+     * Compares resources consumed so far with the budgets and stops the execution on the first violation.
+     *
+     * @return true if the account does not need to be checked anymore.
+     */
+    boolean check() {
+        ResourceBudgetExceededException exceeded;
+        synchronized (this) {
+            if (worker == null || violation != null) {
+                return true;
+            }
+            long cpu = getCpuNanos();
+            long allocated = getAllocatedBytes();
+            if (plan.cpuBudgetNanos > 0 && cpu > plan.cpuBudgetNanos) {
+                exceeded = new ResourceBudgetExceededException(String.format("CPU time budget %d ms exceeded: %d ms",
+                        plan.config.cpuBudget, cpu / 1_000_000L), new ScriptResourceUsage(cpu, allocated));
+            } else if (plan.config.allocationBudget > 0 && allocated > plan.config.allocationBudget) {
+                exceeded = new ResourceBudgetExceededException(String.format("Allocation budget %d bytes exceeded: %d bytes",
+                        plan.config.allocationBudget, allocated), new ScriptResourceUsage(cpu, allocated));
+            } else {
+                return false;
+            }
+            violation = exceeded;
+        }
+        log.debug("Stopping {}: {}", plan.method, exceeded.getMessage());
+        plan.metrics.recordBudgetViolation();
+        onBudgetExceeded.accept(exceeded);
+        return true;
+    }
+
+    /**
+     * @return budget violation or null if the budgets are not exceeded.
+     */
+    synchronized ResourceBudgetExceededException getViolation() {
+        return violation;
+    }
+
+    /**
+     * @return resources consumed by the finished execution.
+     */
+    synchronized ScriptResourceUsage getUsage() {
+        return new ScriptResourceUsage(cpuNanos, allocatedBytes);
+    }
+
+    private long getCpuNanos() {
+        long now = worker != null ? Meter.getCpuNanos(worker) : NOT_MEASURED;
+        return now >= 0 && startCpuNanos >= 0 ? now - startCpuNanos : cpuNanos;
+    }
+
+    private long getAllocatedBytes() {
+        long now = worker != null ? Meter.getAllocatedBytes(worker) : NOT_MEASURED;
+        return now >= 0 && startAllocatedBytes >= 0 ? now - startAllocatedBytes : allocatedBytes;
+    }
+
+    /**
+     * Reads thread counters, measurement is enabled on first use. Allocated bytes are available on HotSpot based JVMs only.
+     */
+    static class Meter {
+
+        private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        private static final boolean cpuTimeSupported = enableCpuTime();
+
+        private static final boolean allocationSupported = enableAllocation();
+
+        private static boolean enableCpuTime() {
+            try {
+                if (!threadBean.isThreadCpuTimeSupported()) {
+                    log.warn("Thread CPU time is not supported by the JVM, CPU time of scripts is not measured");
+                    return false;
+                }
+                if (!threadBean.isThreadCpuTimeEnabled()) {
+                    threadBean.setThreadCpuTimeEnabled(true);
+                }
+                return true;
+            } catch (UnsupportedOperationException | SecurityException e) {
+                log.warn("Cannot enable thread CPU time measurement: {}", e.toString());
+                return false;
+            }
+        }
+
+        private static boolean enableAllocation() {
+            try {
+                if (!(threadBean instanceof com.sun.management.ThreadMXBean)
+                        || !((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()) {
+                    log.warn("Thread allocated memory is not supported by the JVM, allocations of scripts are not measured");
+                    return false;
+                }
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+                if (!bean.isThreadAllocatedMemoryEnabled()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                }
+                return true;
+            } catch (UnsupportedOperationException | SecurityException | LinkageError e) {
+                log.warn("Cannot enable thread allocated memory measurement: {}", e.toString());
+                return false;
+            }
+        }
+
+        static boolean isCpuTimeSupported() {
+            return cpuTimeSupported;
+        }
+
+        static boolean isAllocationSupported() {
+            return allocationSupported;
+        }
+
+        /**
+         * @return CPU time of the thread in nanoseconds, negative value if it cannot be measured or the thread is not alive.
+         */
+        static long getCpuNanos(Thread thread) {
+            return cpuTimeSupported ? threadBean.getThreadCpuTime(thread.getId()) : NOT_MEASURED;
+        }
+
+        /**
+         * @return bytes allocated by the thread since its start, negative value if it cannot be measured.
+         */
+        static long getAllocatedBytes(Thread thread) {
+            return allocationSupported
+                    ? ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(thread.getId())
+                    : NOT_MEASURED;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.haulmont.scripting.repository.factory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks resource budgets of running scripted method invocations with a single timer thread shared by all repositories.
+ * Accounts are checked every {@link #CHECK_INTERVAL} milliseconds, the check task is scheduled only while there are
+ * invocations with budgets in progress.
+ */
+class ResourceWatchdog {
+
+    static final ResourceWatchdog INSTANCE = new ResourceWatchdog("script-budget-");
+
+    static final long CHECK_INTERVAL = 10L;
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceWatchdog.class);
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final Set<ResourceAccount> accounts = ConcurrentHashMap.newKeySet();
+
+    private ScheduledFuture<?> checkTask; //guarded by this
+
+    private ResourceWatchdog(String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts checking the account periodically until it is {@link #unwatch(ResourceAccount) removed}
+     * or its budget is exceeded.
+     *
+     * @param account account of a running invocation.
+     */
+    synchronized void watch(ResourceAccount account) {
+        accounts.add(account);
+        if (checkTask == null) {
+            checkTask = scheduler.scheduleWithFixedDelay(this::checkAll, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void unwatch(ResourceAccount account) {
+        accounts.remove(account);
+    }
+
+    private void checkAll() {
+        for (ResourceAccount account : accounts) {
+            try {
+                if (account.check()) {
+                    accounts.remove(account);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cannot check resource budget: {}", e.toString());
+                accounts.remove(account);
+            }
+        }
+        synchronized (this) {
+            if (accounts.isEmpty() && checkTask != null) {
+                checkTask.cancel(false);
+                checkTask = null;
+            }
+        }
+    }
+}
@@ -2,40 +2,62 @@ package com.haulmont.scripting.repository.factory;
 
 import com.haulmont.scripting.repository.ScriptRepository;
 import com.haulmont.scripting.repository.config.AnnotationConfig;
+import com.haulmont.scripting.repository.config.CachedScriptsBeanDefinitionDecorator;
+import com.haulmont.scripting.repository.index.ScriptRepositoryIndex;
+import com.haulmont.scripting.repository.metrics.ScriptMetricsRegistry;
+import com.haulmont.scripting.repository.metrics.ScriptRepositoryMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 /**
  * Class that creates proxies for script repositories based on configuration data. Proxies will forward script repository interface method
  * invocations to get script text from providers and then for evaluation to actual evaluator class.
  * <p>
  * Factory scans packages and creates script repository proxies when context initialization is finished.
+ * If the classpath contains script repositories index generated at compile time, repositories are taken from the index
+ * and packages are scanned only if the index contains no repositories for them.
+ * If {@code script.repository.warmup.enabled} property is set, scripts of all repositories are compiled
+ * when the context is refreshed. Script providers annotated with {@link com.haulmont.scripting.repository.CachedScripts}
+ * are replaced with caching providers before repositories are registered.
  *
  * @see BeanDefinitionRegistryPostProcessor#postProcessBeanDefinitionRegistry(BeanDefinitionRegistry)
  */
-public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostProcessor, ApplicationContextAware {
+public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostProcessor, ApplicationContextAware,
+        ApplicationListener<ContextRefreshedEvent>, DisposableBean {
 
     public static final String NAME = "scriptRepositoryFactory";
 
@@ -47,6 +69,14 @@ public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostPr
 
     private Map<Method, AnnotationConfig> methodScriptInvocationMetadata = new ConcurrentHashMap<>(); //global invocation cache
 
+    private final List<RepositoryMethodsHandler> handlers = new CopyOnWriteArrayList<>();
+
+    private final ScriptMetricsRegistry metricsRegistry = new ScriptMetricsRegistry();
+
+    private ObjectName metricsObjectName; //null if metrics are not registered in JMX
+
+    private volatile WarmUpSummary warmUpSummary;
+
     private ApplicationContext ctx;
 
     /**
@@ -100,10 +130,22 @@ public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostPr
      */
     @Override
     public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        CachedScriptsBeanDefinitionDecorator.decorateAnnotatedProviders(registry);
+        ScriptRepositoryIndex index = isIndexIgnored() ? null : ScriptRepositoryIndex.load(getClassLoader());
+        boolean mergeScan = isIndexMergedWithScan();
         ClassPathScanningCandidateComponentProvider provider
                 = new ScriptRepositoryCandidateProvider();
         for (String packageName : basePackages) {
-            Set<BeanDefinition> candidateComponents = provider.findCandidateComponents(packageName);
+            Set<BeanDefinition> candidateComponents = index != null ? getIndexedComponents(index, packageName) : Collections.emptySet();
+            if (candidateComponents.isEmpty()) {
+                log.debug("Scanning package {} for script repositories", packageName);
+                candidateComponents = provider.findCandidateComponents(packageName);
+            } else if (mergeScan) {
+                candidateComponents = mergeScannedComponents(candidateComponents, provider.findCandidateComponents(packageName), packageName);
+            } else {
+                log.info("Script repositories of package {} are taken from the index, repositories of non-indexed modules " +
+                        "are not found unless script.repository.index.merge.scan=true", packageName);
+            }
             try {
                 for (BeanDefinition definition : candidateComponents) {
                     definition.setFactoryBeanName(NAME);
@@ -119,6 +161,48 @@ public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostPr
         }
     }
 
+    private Set<BeanDefinition> getIndexedComponents(ScriptRepositoryIndex index, String packageName) {
+        Set<BeanDefinition> candidateComponents = new LinkedHashSet<>();
+        for (String className : index.getRepositoryClassNames(packageName)) {
+            GenericBeanDefinition definition = new GenericBeanDefinition();
+            definition.setBeanClassName(className);
+            candidateComponents.add(definition);
+        }
+        log.debug("Found {} script repositories in package {} using index", candidateComponents.size(), packageName);
+        return candidateComponents;
+    }
+
+    /**
+     * Adds scanned repositories missing from the index, so packages split between indexed and non-indexed modules
+     * are found completely.
+     */
+    private Set<BeanDefinition> mergeScannedComponents(Set<BeanDefinition> indexedComponents, Set<BeanDefinition> scannedComponents,
+                                                       String packageName) {
+        Set<String> indexedClassNames = indexedComponents.stream()
+                .map(BeanDefinition::getBeanClassName)
+                .collect(Collectors.toSet());
+        Set<BeanDefinition> candidateComponents = new LinkedHashSet<>(indexedComponents);
+        for (BeanDefinition definition : scannedComponents) {
+            if (!indexedClassNames.contains(definition.getBeanClassName())) {
+                log.info("Script repository {} of package {} is not in the index", definition.getBeanClassName(), packageName);
+                candidateComponents.add(definition);
+            }
+        }
+        return candidateComponents;
+    }
+
+    private boolean isIndexMergedWithScan() {
+        return ctx != null && ctx.getEnvironment().getProperty("script.repository.index.merge.scan", Boolean.class, false);
+    }
+
+    private boolean isIndexIgnored() {
+        return ctx != null && ctx.getEnvironment().getProperty("script.repository.index.ignore", Boolean.class, false);
+    }
+
+    private ClassLoader getClassLoader() {
+        return ctx != null && ctx.getClassLoader() != null ? ctx.getClassLoader() : ClassUtils.getDefaultClassLoader();
+    }
+
     /**
      * Empty method - nothing to do in our case.
      *
@@ -136,10 +220,31 @@ public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostPr
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         ctx = applicationContext;
+        if (ctx.getEnvironment().getProperty("script.repository.metrics.jmx.enabled", Boolean.class, true)) {
+            registerMetricsMBean();
+        }
+    }
+
+    /**
+     * Publishes scripted methods statistics in the platform MBean server. Failure to register is not fatal,
+     * statistics are still available through {@link #getMetricsRegistry()}.
+     */
+    private void registerMetricsMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.haulmont.scripting:type=ScriptRepositoryMetrics,context="
+                    + ObjectName.quote(ctx.getId()));
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(new ScriptRepositoryMetrics(metricsRegistry), objectName);
+            metricsObjectName = objectName;
+            log.debug("Registered script repository metrics MBean {}", objectName);
+        } catch (JMException e) {
+            log.warn("Cannot register script repository metrics MBean: {}", e.getMessage());
+        }
     }
 
     /**
      * Factory method that creates proxies based on script repository interface and configuration.
+     * Proxy implementation is selected with {@code script.repository.proxy.mode} property, see {@link ProxyMode}.
      *
      * @param repositoryClass         script repository interface class.
      * @param customAnnotationsConfig custom annotation configurations for script execution.
@@ -153,16 +258,72 @@ public class ScriptRepositoryFactoryBean implements BeanDefinitionRegistryPostPr
         }
 
         log.debug("Creating proxy for {}", repositoryClass.getName());
-        RepositoryMethodsHandler handler = new RepositoryMethodsHandler(repositoryClass, ctx, customAnnotationsConfig);
+        RepositoryMethodsHandler handler = new RepositoryMethodsHandler(repositoryClass, ctx, customAnnotationsConfig, metricsRegistry);
+        handlers.add(handler);
         methodScriptInvocationMetadata.putAll(handler.getMethodScriptInvocationMetadata());
+        ProxyMode proxyMode = ctx.getEnvironment().getProperty("script.repository.proxy.mode", ProxyMode.class, ProxyMode.JDK);
+        if (proxyMode == ProxyMode.CGLIB) {
+            return (T) GeneratedProxyFactory.createProxy(repositoryClass, handler);
+        }
         return (T) Proxy.newProxyInstance(repositoryClass.getClassLoader(),
                 new Class<?>[]{repositoryClass}, handler);
     }
 
+    /**
+     * Warms up scripted methods of all repositories created in this context if warm-up is enabled.
+     * Context refresh is finished only after warm-up, so the application does not get requests before it.
+     *
+     * @see ScriptWarmUp
+     */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != ctx || warmUpSummary != null
+                || !ctx.getEnvironment().getProperty("script.repository.warmup.enabled", Boolean.class, false)) {
+            return;
+        }
+        int threads = ctx.getEnvironment().getProperty("script.repository.warmup.threads", Integer.class, 4);
+        long timeout = ctx.getEnvironment().getProperty("script.repository.warmup.timeout", Long.class, 60_000L);
+        log.info("Warming up scripted methods of {} repositories", handlers.size());
+        warmUpSummary = new ScriptWarmUp(threads, timeout).run(handlers);
+    }
+
+    /**
+     * Stops thread pools created for script repositories.
+     *
+     * @see DisposableBean#destroy()
+     */
+    @Override
+    public void destroy() {
+        handlers.forEach(RepositoryMethodsHandler::shutdown);
+        handlers.clear();
+        if (metricsObjectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsObjectName);
+            } catch (JMException e) {
+                log.warn("Cannot unregister script repository metrics MBean: {}", e.getMessage());
+            }
+            metricsObjectName = null;
+        }
+    }
+
     public Map<Method, AnnotationConfig> getMethodInvocationsInfo() {
         return Collections.unmodifiableMap(methodScriptInvocationMetadata);
     }
 
+    /**
+     * @return invocation statistics of scripted methods, keyed by the same methods as {@link #getMethodInvocationsInfo()}.
+     */
+    public ScriptMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * @return result of scripted methods warm-up, null if warm-up is disabled or has not been performed yet.
+     */
+    public WarmUpSummary getWarmUpSummary() {
+        return warmUpSummary;
+    }
+
     /**
      * Custom bean candidate provider that includes only annotated interfaces.
      *
@@ -0,0 +1,98 @@
+package com.haulmont.scripting.repository.factory;
+
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches and compiles scripts of all scripted methods in parallel using a bounded thread pool, so the first calls
+ * after application start do not pay for script loading and compilation. Warm-up waits for all methods, but not
+ * longer than the configured timeout; methods that did not finish in time are reported as failed and their threads
+ * are interrupted.
+ */
+class ScriptWarmUp {
+
+    private static final Logger log = LoggerFactory.getLogger(ScriptWarmUp.class);
+
+    private final int threads;
+
+    private final long timeout;
+
+    /**
+     * @param threads number of warm-up threads.
+     * @param timeout maximum warm-up duration in milliseconds, zero or negative value - wait until all scripts are compiled.
+     */
+    ScriptWarmUp(int threads, long timeout) {
+        this.threads = threads;
+        this.timeout = timeout;
+    }
+
+    WarmUpSummary run(List<RepositoryMethodsHandler> handlers) {
+        long start = System.currentTimeMillis();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("script-warmup-");
+        threadFactory.setDaemon(true);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(threads, 1), threadFactory);
+
+        Map<Method, Future<Integer>> tasks = new LinkedHashMap<>();
+        for (RepositoryMethodsHandler handler : handlers) {
+            for (Method method : handler.getMethodScriptInvocationMetadata().keySet()) {
+                tasks.put(method, pool.submit(() -> handler.warmUp(method)));
+            }
+        }
+
+        int compiled = 0;
+        int evaluations = 0;
+        int skipped = 0;
+        Map<Method, Throwable> failures = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Method, Future<Integer>> task : tasks.entrySet()) {
+                Method method = task.getKey();
+                try {
+                    evaluations += awaitTask(task.getValue(), start);
+                    compiled++;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (method.isDefault() && (cause instanceof ScriptNotFoundException
+                            || cause.getCause() instanceof ScriptNotFoundException)) {
+                        skipped++;
+                    } else {
+                        failures.put(method, cause);
+                    }
+                } catch (TimeoutException e) {
+                    failures.put(method, new TimeoutException(String.format("Warm-up timeout %d ms exceeded", timeout)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Scripted methods warm-up is interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        WarmUpSummary summary = new WarmUpSummary(compiled, evaluations, skipped, failures, System.currentTimeMillis() - start);
+        failures.forEach((method, error) -> log.warn("Warm-up of scripted method {} failed: {}", method, error.toString()));
+        log.info("Scripted methods warm-up finished in {} ms: {} compiled, {} evaluations, {} skipped default methods, {} failed",
+                summary.getDurationMillis(), compiled, evaluations, skipped, failures.size());
+        return summary;
+    }
+
+    private int awaitTask(Future<Integer> task, long start) throws InterruptedException, ExecutionException, TimeoutException {
+        if (timeout <= 0) {
+            return task.get();
+        }
+        long remaining = start + timeout - System.currentTimeMillis();
+        return task.get(Math.max(remaining, 0L), TimeUnit.MILLISECONDS);
+    }
+}
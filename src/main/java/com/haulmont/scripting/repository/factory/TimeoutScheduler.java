@@ -0,0 +1,46 @@
+package com.haulmont.scripting.repository.factory;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces scripted method timeouts with a single timer thread shared by all repositories, so waiting
+ * for a deadline does not occupy a thread per invocation. Timer tasks are removed from the queue
+ * as soon as the watched invocation completes, therefore only in-flight invocations are kept in memory.
+ */
+class TimeoutScheduler {
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    TimeoutScheduler(String threadNamePrefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Runs timeout action if the future is not completed within the timeout. The action is executed
+     * in the timer thread, so it should only complete the future and hand off any heavy work.
+     *
+     * @param future    invocation future to be watched.
+     * @param timeout   timeout in milliseconds.
+     * @param onTimeout action to be executed when timeout expires.
+     */
+    void watch(CompletableFuture<?> future, long timeout, Runnable onTimeout) {
+        if (future.isDone()) {
+            return;
+        }
+        ScheduledFuture<?> timeoutTask = scheduler.schedule(() -> {
+            if (!future.isDone()) {
+                onTimeout.run();
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((value, throwable) -> timeoutTask.cancel(false));
+    }
+}
@@ -0,0 +1,72 @@
+package com.haulmont.scripting.repository.factory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of scripted methods warm-up performed on application context start.
+ */
+public class WarmUpSummary {
+
+    private final int compiled;
+
+    private final int evaluations;
+
+    private final int skipped;
+
+    private final Map<Method, Throwable> failures;
+
+    private final long durationMillis;
+
+    WarmUpSummary(int compiled, int evaluations, int skipped, Map<Method, Throwable> failures, long durationMillis) {
+        this.compiled = compiled;
+        this.evaluations = evaluations;
+        this.skipped = skipped;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return number of methods which scripts were fetched and compiled.
+     */
+    public int getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * @return total number of warm-up evaluations with sample arguments.
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return number of default methods without scripts.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return errors of methods that failed warm-up.
+     */
+    public Map<Method, Throwable> getFailures() {
+        return failures;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmUpSummary{" +
+                "compiled=" + compiled +
+                ", evaluations=" + evaluations +
+                ", skipped=" + skipped +
+                ", failed=" + failures.size() +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.haulmont.scripting.repository.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Script repository interfaces listed in {@value #INDEX_LOCATION} files generated by
+ * {@link ScriptRepositoryIndexProcessor} at compile time. Reading the index is much faster than classpath scanning,
+ * but the index knows nothing about classes compiled without the annotation processor.
+ */
+public class ScriptRepositoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ScriptRepositoryIndex.class);
+
+    public static final String INDEX_LOCATION = "META-INF/script-repositories.index";
+
+    private final Set<String> repositoryClassNames;
+
+    ScriptRepositoryIndex(Set<String> repositoryClassNames) {
+        this.repositoryClassNames = Collections.unmodifiableSet(repositoryClassNames);
+    }
+
+    /**
+     * Reads all index files available to the class loader.
+     *
+     * @param classLoader class loader to look up index files.
+     * @return merged index or null if there are no index files.
+     */
+    public static ScriptRepositoryIndex load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            if (!urls.hasMoreElements()) {
+                return null;
+            }
+            Set<String> classNames = new LinkedHashSet<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                log.debug("Reading script repositories index {}", url);
+                classNames.addAll(read(url));
+            }
+            return new ScriptRepositoryIndex(classNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read script repositories index", e);
+        }
+    }
+
+    private static Set<String> read(URL url) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            return reader.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+    }
+
+    /**
+     * @param basePackage package name, repositories in its subpackages are included as well.
+     * @return binary names of indexed script repository interfaces located in the package.
+     */
+    public Set<String> getRepositoryClassNames(String basePackage) {
+        String prefix = basePackage.endsWith(".") ? basePackage : basePackage + ".";
+        return repositoryClassNames.stream()
+                .filter(name -> name.startsWith(prefix))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    public Set<String> getRepositoryClassNames() {
+        return repositoryClassNames;
+    }
+}
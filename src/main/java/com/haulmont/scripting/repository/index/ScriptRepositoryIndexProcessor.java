@@ -0,0 +1,114 @@
+package com.haulmont.scripting.repository.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor that writes binary names of all interfaces annotated with
+ * {@link com.haulmont.scripting.repository.ScriptRepository} to {@value ScriptRepositoryIndex#INDEX_LOCATION},
+ * so script repository factory does not need to scan the classpath on startup.
+ * <p>
+ * Entries of a previously generated index are kept if their interfaces still exist and are annotated, so
+ * incremental compilation of a part of sources does not lose repositories.
+ */
+public class ScriptRepositoryIndexProcessor extends AbstractProcessor {
+
+    static final String SCRIPT_REPOSITORY_ANNOTATION = "com.haulmont.scripting.repository.ScriptRepository";
+
+    private final Set<String> repositories = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(SCRIPT_REPOSITORY_ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.INTERFACE) {
+                    repositories.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+                } else {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Only interfaces can be script repositories, the class is not indexed", element);
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        Set<String> entries = new TreeSet<>(repositories);
+        entries.addAll(readPreviousEntries());
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject index = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ScriptRepositoryIndex.INDEX_LOCATION);
+            try (Writer writer = index.openWriter()) {
+                writer.write("# Script repository interfaces, generated by " + getClass().getName() + "\n");
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write script repositories index: " + e.getMessage());
+        }
+    }
+
+    private Set<String> readPreviousEntries() {
+        try {
+            FileObject index = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ScriptRepositoryIndex.INDEX_LOCATION);
+            try (Reader reader = index.openReader(true)) {
+                return new BufferedReader(reader).lines()
+                        .map(String::trim)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .filter(this::isScriptRepository)
+                        .collect(Collectors.toSet());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return Collections.emptySet(); //No previous index
+        }
+    }
+
+    private boolean isScriptRepository(String className) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+        if (type == null || type.getKind() != ElementKind.INTERFACE) {
+            return false;
+        }
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().toString().equals(SCRIPT_REPOSITORY_ANNOTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package com.haulmont.scripting.repository.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Invocation statistics of a single scripted method. All recording methods are lock-free, so the statistics
+ * can be collected in production.
+ */
+public class MethodMetrics {
+
+    private final Method method;
+
+    private final String name;
+
+    private final LongAdder invocations = new LongAdder();
+
+    private final LongAdder successes = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final LongAdder defaultMethodCalls = new LongAdder();
+
+    private final LongAdder memoizedCalls = new LongAdder();
+
+    private final LongAdder budgetViolations = new LongAdder();
+
+    private final LongAdder shortCircuitedCalls = new LongAdder();
+
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    private final LongAdder cpuNanos = new LongAdder();
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    MethodMetrics(Method method) {
+        this.method = method;
+        this.name = method.getDeclaringClass().getName() + "." + method.getName()
+                + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Records method invocation start.
+     */
+    public void recordInvocation() {
+        invocations.increment();
+    }
+
+    /**
+     * Records successful method completion.
+     *
+     * @param latencyNanos time from invocation start in nanoseconds.
+     */
+    public void recordSuccess(long latencyNanos) {
+        successes.increment();
+        latency.record(latencyNanos);
+    }
+
+    /**
+     * Records method failure, including timeouts.
+     *
+     * @param latencyNanos time from invocation start in nanoseconds.
+     * @param timeout      true if method failed because of timeout.
+     */
+    public void recordFailure(long latencyNanos, boolean timeout) {
+        failures.increment();
+        if (timeout) {
+            timeouts.increment();
+        }
+        latency.record(latencyNanos);
+    }
+
+    /**
+     * Records invocation of interface default method instead of script.
+     */
+    public void recordDefaultMethodCall() {
+        defaultMethodCalls.increment();
+    }
+
+    /**
+     * Records invocation that returned memoized result without script evaluation.
+     */
+    public void recordMemoizedCall() {
+        memoizedCalls.increment();
+    }
+
+    /**
+     * Records invocation that was interrupted because it exceeded its CPU time or allocation budget.
+     */
+    public void recordBudgetViolation() {
+        budgetViolations.increment();
+    }
+
+    /**
+     * Records invocation rejected by open circuit breaker.
+     */
+    public void recordShortCircuitedCall() {
+        shortCircuitedCalls.increment();
+    }
+
+    /**
+     * Records invocation rejected because the concurrency limit was reached.
+     */
+    public void recordRejectedCall() {
+        rejectedCalls.increment();
+    }
+
+    /**
+     * Records resources consumed by an invocation.
+     *
+     * @param cpuNanos       CPU time in nanoseconds, negative if not measured.
+     * @param allocatedBytes allocated memory in bytes, negative if not measured.
+     */
+    public void recordResourceUsage(long cpuNanos, long allocatedBytes) {
+        if (cpuNanos > 0) {
+            this.cpuNanos.add(cpuNanos);
+        }
+        if (allocatedBytes > 0) {
+            this.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return immutable copy of the current statistics.
+     */
+    public MethodMetricsSnapshot getSnapshot() {
+        long[] percentiles = latency.getPercentiles(0.5, 0.99);
+        return new MethodMetricsSnapshot(name,
+                invocations.sum(),
+                successes.sum(),
+                failures.sum(),
+                timeouts.sum(),
+                defaultMethodCalls.sum(),
+                memoizedCalls.sum(),
+                budgetViolations.sum(),
+                shortCircuitedCalls.sum(),
+                rejectedCalls.sum(),
+                cpuNanos.sum(),
+                allocatedBytes.sum(),
+                percentiles[0],
+                percentiles[1],
+                latency.getMax());
+    }
+
+    /**
+     * Clears all statistics.
+     */
+    public void reset() {
+        invocations.reset();
+        successes.reset();
+        failures.reset();
+        timeouts.reset();
+        defaultMethodCalls.reset();
+        memoizedCalls.reset();
+        budgetViolations.reset();
+        shortCircuitedCalls.reset();
+        rejectedCalls.reset();
+        cpuNanos.reset();
+        allocatedBytes.reset();
+        latency.reset();
+    }
+}
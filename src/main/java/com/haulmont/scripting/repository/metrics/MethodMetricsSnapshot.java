@@ -0,0 +1,144 @@
+package com.haulmont.scripting.repository.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable copy of scripted method statistics. Latencies are in nanoseconds, failures include timeouts,
+ * budget violations and invocations rejected by circuit breaker that have no default method. Invocations rejected
+ * because of concurrency limit are neither successes nor failures. Resource usage is a total of all accounted invocations.
+ */
+public class MethodMetricsSnapshot {
+
+    private final String name;
+
+    private final long invocations;
+
+    private final long successes;
+
+    private final long failures;
+
+    private final long timeouts;
+
+    private final long defaultMethodCalls;
+
+    private final long memoizedCalls;
+
+    private final long budgetViolations;
+
+    private final long shortCircuitedCalls;
+
+    private final long rejectedCalls;
+
+    private final long cpuNanos;
+
+    private final long allocatedBytes;
+
+    private final long p50LatencyNanos;
+
+    private final long p99LatencyNanos;
+
+    private final long maxLatencyNanos;
+
+    @ConstructorProperties({"name", "invocations", "successes", "failures", "timeouts", "defaultMethodCalls",
+            "memoizedCalls", "budgetViolations", "shortCircuitedCalls", "rejectedCalls", "cpuNanos", "allocatedBytes", "p50LatencyNanos", "p99LatencyNanos", "maxLatencyNanos"})
+    public MethodMetricsSnapshot(String name, long invocations, long successes, long failures, long timeouts,
+                                 long defaultMethodCalls, long memoizedCalls, long budgetViolations, long shortCircuitedCalls, long rejectedCalls, long cpuNanos, long allocatedBytes,
+                                 long p50LatencyNanos, long p99LatencyNanos, long maxLatencyNanos) {
+        this.name = name;
+        this.invocations = invocations;
+        this.successes = successes;
+        this.failures = failures;
+        this.timeouts = timeouts;
+        this.defaultMethodCalls = defaultMethodCalls;
+        this.memoizedCalls = memoizedCalls;
+        this.budgetViolations = budgetViolations;
+        this.shortCircuitedCalls = shortCircuitedCalls;
+        this.rejectedCalls = rejectedCalls;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.p50LatencyNanos = p50LatencyNanos;
+        this.p99LatencyNanos = p99LatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getDefaultMethodCalls() {
+        return defaultMethodCalls;
+    }
+
+    public long getMemoizedCalls() {
+        return memoizedCalls;
+    }
+
+    public long getBudgetViolations() {
+        return budgetViolations;
+    }
+
+    public long getShortCircuitedCalls() {
+        return shortCircuitedCalls;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getP50LatencyNanos() {
+        return p50LatencyNanos;
+    }
+
+    public long getP99LatencyNanos() {
+        return p99LatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodMetricsSnapshot{" +
+                "name='" + name + '\'' +
+                ", invocations=" + invocations +
+                ", successes=" + successes +
+                ", failures=" + failures +
+                ", timeouts=" + timeouts +
+                ", defaultMethodCalls=" + defaultMethodCalls +
+                ", memoizedCalls=" + memoizedCalls +
+                ", budgetViolations=" + budgetViolations +
+                ", shortCircuitedCalls=" + shortCircuitedCalls +
+                ", rejectedCalls=" + rejectedCalls +
+                ", cpuNanos=" + cpuNanos +
+                ", allocatedBytes=" + allocatedBytes +
+                ", p50LatencyNanos=" + p50LatencyNanos +
+                ", p99LatencyNanos=" + p99LatencyNanos +
+                ", maxLatencyNanos=" + maxLatencyNanos +
+                '}';
+    }
+}
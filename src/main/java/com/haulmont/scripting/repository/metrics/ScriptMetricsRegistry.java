@@ -0,0 +1,49 @@
+package com.haulmont.scripting.repository.metrics;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps invocation statistics of all scripted methods created by a script repository factory.
+ */
+public class ScriptMetricsRegistry {
+
+    private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Gets statistics holder of the method, creates it if needed.
+     *
+     * @param method scripted method.
+     * @return method statistics.
+     */
+    public MethodMetrics register(Method method) {
+        return metrics.computeIfAbsent(method, MethodMetrics::new);
+    }
+
+    /**
+     * @param method scripted method.
+     * @return method statistics or null if the method is not registered.
+     */
+    public MethodMetrics getMetrics(Method method) {
+        return metrics.get(method);
+    }
+
+    /**
+     * @return current statistics of all registered methods.
+     */
+    public Map<Method, MethodMetricsSnapshot> getSnapshots() {
+        Map<Method, MethodMetricsSnapshot> snapshots = new HashMap<>();
+        metrics.forEach((method, methodMetrics) -> snapshots.put(method, methodMetrics.getSnapshot()));
+        return Collections.unmodifiableMap(snapshots);
+    }
+
+    /**
+     * Clears statistics of all methods.
+     */
+    public void reset() {
+        metrics.values().forEach(MethodMetrics::reset);
+    }
+}
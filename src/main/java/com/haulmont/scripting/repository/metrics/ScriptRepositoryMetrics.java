@@ -0,0 +1,28 @@
+package com.haulmont.scripting.repository.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Publishes scripted methods statistics from {@link ScriptMetricsRegistry} over JMX.
+ */
+public class ScriptRepositoryMetrics implements ScriptRepositoryMetricsMXBean {
+
+    private final ScriptMetricsRegistry registry;
+
+    public ScriptRepositoryMetrics(ScriptMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Map<String, MethodMetricsSnapshot> getMethodMetrics() {
+        Map<String, MethodMetricsSnapshot> result = new TreeMap<>();
+        registry.getSnapshots().values().forEach(snapshot -> result.put(snapshot.getName(), snapshot));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        registry.reset();
+    }
+}
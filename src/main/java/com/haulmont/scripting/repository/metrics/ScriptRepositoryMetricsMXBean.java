@@ -0,0 +1,20 @@
+package com.haulmont.scripting.repository.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX interface for scripted methods statistics.
+ */
+public interface ScriptRepositoryMetricsMXBean {
+
+    /**
+     * @return statistics of scripted methods by method name.
+     */
+    Map<String, MethodMetricsSnapshot> getMethodMetrics();
+
+    /**
+     * Clears statistics of all methods.
+     */
+    void reset();
+
+}
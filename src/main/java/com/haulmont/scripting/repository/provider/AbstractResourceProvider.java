@@ -2,37 +2,219 @@ package com.haulmont.scripting.repository.provider;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.Resource;
+import org.springframework.scripting.ScriptCompilationException;
 import org.springframework.scripting.ScriptSource;
 import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Loads script text from application using {@link ResourceUtils#getFile(String)} class.
  * Allows you to define your own way of building resource path based on method signature.
+ * <p>
+ * Loaded scripts are kept in memory as {@link VersionedScriptSource} instances. Scripts stored in file system
+ * are reloaded when {@link WatchService} reports their change, other resources (e.g. in jar files) are
+ * checked for modification not more often than once in {@link #setCheckInterval(long) check interval}.
+ * A new source instance is created only if script text has actually changed.
  */
-public abstract class AbstractResourceProvider implements ScriptProvider {
+public abstract class AbstractResourceProvider implements ScriptProvider, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(AbstractResourceProvider.class);
 
+    private static final long DEFAULT_CHECK_INTERVAL = 1_000L;
+
     private DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
 
+    private final Map<String, CachedSource> sources = new ConcurrentHashMap<>();
+
+    private final Map<Path, String> watchedFiles = new ConcurrentHashMap<>(); //file - resource path
+
+    private final Set<Path> watchedDirs = new HashSet<>(); //guarded by this
+
+    private WatchService watchService; //guarded by this
+
+    private volatile long checkInterval = DEFAULT_CHECK_INTERVAL;
+
     /**
      * {@inheritDoc}
      */
     @Override
     public ScriptSource getScript(Method method) {
         String path = getResourcePath(method);
+        CachedSource cached = sources.get(path);
+        if (cached != null && !cached.isStale(checkInterval)) {
+            return cached.source;
+        }
+        return loadScript(path, cached);
+    }
+
+    private ScriptSource loadScript(String path, CachedSource previous) {
         log.debug("Getting script from resource {}", path);
         Resource res = resourceLoader.getResource(path);
-        if (res.exists()){
-            return new ResourceScriptSource(res);
-        } else {
+        if (!res.exists()) {
+            sources.remove(path);
             throw new ScriptNotFoundException(String.format("Resource %s does not exists", path));
         }
+        long lastModified = getLastModified(res);
+        if (previous != null && !previous.invalidated && lastModified > 0 && previous.lastModified == lastModified) {
+            previous.lastChecked = System.currentTimeMillis();
+            return previous.source;
+        }
+        //Watching before reading, so changes made during reading are not lost
+        boolean watched = watch(res, path);
+        String scriptText;
+        try {
+            scriptText = new ResourceScriptSource(res).getScriptAsString();
+        } catch (IOException e) {
+            throw new ScriptCompilationException(String.format("Resource %s cannot be read", path), e);
+        }
+        VersionedScriptSource source = previous != null && previous.source.getScriptAsString().equals(scriptText)
+                ? previous.source
+                : new VersionedScriptSource(scriptText, VersionedScriptSource.nextVersion(),
+                        StringUtils.stripFilenameExtension(res.getFilename()), res.getDescription());
+        sources.put(path, new CachedSource(source, lastModified, watched));
+        if (getLastModified(res) != lastModified) { //Resource was changed while we were reading it
+            invalidate(path);
+        }
+        return source;
+    }
+
+    private long getLastModified(Resource res) {
+        try {
+            return res.lastModified();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Registers resource's directory in the watch service if the resource is a file.
+     *
+     * @return true if resource changes will be reported by the watch service.
+     */
+    private synchronized boolean watch(Resource res, String path) {
+        Path file;
+        try {
+            file = res.getFile().toPath().toAbsolutePath();
+        } catch (IOException e) {
+            return false; //Not a file system resource, e.g. jar entry
+        }
+        Path dir = file.getParent();
+        try {
+            if (!watchedDirs.contains(dir)) {
+                dir.register(getWatchService(),
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.add(dir);
+                log.debug("Watching script directory {}", dir);
+            }
+            watchedFiles.put(file, path);
+            return true;
+        } catch (IOException | ClosedWatchServiceException e) {
+            log.warn("Cannot watch script directory {}, changes will be checked by polling: {}", dir, e.getMessage());
+            return false;
+        }
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            Thread watcherThread = new Thread(() -> processWatchEvents(service), getClass().getSimpleName() + "-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+            watchService = service;
+        }
+        return watchService;
+    }
+
+    private void processWatchEvents(WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateDirectory(dir);
+                    } else {
+                        String path = watchedFiles.get(dir.resolve((Path) event.context()));
+                        if (path != null) {
+                            invalidate(path);
+                        }
+                    }
+                }
+                if (!key.reset()) { //Directory is not accessible anymore
+                    synchronized (this) {
+                        watchedDirs.remove(dir);
+                    }
+                    invalidateDirectory(dir);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Script watcher is stopped");
+        }
+    }
+
+    private void invalidateDirectory(Path dir) {
+        watchedFiles.forEach((file, path) -> {
+            if (dir.equals(file.getParent())) {
+                invalidate(path);
+            }
+        });
+    }
+
+    private void invalidate(String path) {
+        CachedSource cached = sources.get(path);
+        if (cached != null) {
+            log.debug("Script {} is changed", path);
+            cached.invalidated = true;
+        }
+    }
+
+    /**
+     * Stops watching script directories.
+     */
+    @Override
+    public synchronized void destroy() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        watchedDirs.clear();
+        sources.clear();
+    }
+
+    /**
+     * Sets how often resources that are not watched in file system are checked for modification.
+     *
+     * @param checkInterval check interval in milliseconds, zero - check on every call,
+     *                      negative value - never reload such resources.
+     */
+    @Value("${script.source.check.interval:" + DEFAULT_CHECK_INTERVAL + "}")
+    public void setCheckInterval(long checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public long getCheckInterval() {
+        return checkInterval;
     }
 
     /**
@@ -42,4 +224,32 @@ public abstract class AbstractResourceProvider implements ScriptProvider {
      */
     public abstract String getResourcePath(Method method);
 
+    private static class CachedSource {
+
+        final VersionedScriptSource source;
+
+        final long lastModified;
+
+        final boolean watched;
+
+        volatile boolean invalidated;
+
+        volatile long lastChecked = System.currentTimeMillis();
+
+        CachedSource(VersionedScriptSource source, long lastModified, boolean watched) {
+            this.source = source;
+            this.lastModified = lastModified;
+            this.watched = watched;
+        }
+
+        boolean isStale(long checkInterval) {
+            if (invalidated) {
+                return true;
+            }
+            if (watched || checkInterval < 0) {
+                return false;
+            }
+            return System.currentTimeMillis() - lastChecked >= checkInterval;
+        }
+    }
 }
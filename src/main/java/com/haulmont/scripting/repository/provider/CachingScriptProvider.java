@@ -0,0 +1,402 @@
+package com.haulmont.scripting.repository.provider;
+
+import com.haulmont.scripting.repository.evaluator.TimeoutAware;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scripting.ScriptSource;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches scripts returned by another provider. Scripts are kept for {@link #setTtl(long) time to live}, the cache is
+ * bounded by {@link #setMaxSize(int) number of scripts} and by {@link #setMaxWeight(long) estimated memory}, least
+ * recently used scripts are evicted first. A script requested less than {@link #setRefreshAhead(long) refresh-ahead time}
+ * before its expiration is reloaded in background, callers keep getting the cached script meanwhile.
+ * <p>
+ * Concurrent requests for a script that is being loaded wait for the same load. Errors are not cached:
+ * {@link ScriptNotFoundException} and other provider errors are thrown to all callers waiting for the load,
+ * and the next request calls the provider again.
+ * <p>
+ * Provider instance is taken from the object factory for every load, so prototype providers get a new instance
+ * every time. If a provider is {@link TimeoutAware}, {@link #cancel(Method)} cancels the load of the method's script
+ * by an interrupted invocation unless other callers still wait for it, {@link #cancel()} cancels all loads
+ * in progress. Callers waiting for a cancelled load get the provider's error.
+ *
+ * @see com.haulmont.scripting.repository.CachedScripts
+ */
+public class CachingScriptProvider implements ScriptProvider, TimeoutAware, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingScriptProvider.class);
+
+    static final long ENTRY_OVERHEAD = 128L; //estimated size of cache entry, script source and load future objects
+
+    private final ObjectFactory<? extends ScriptProvider> providerFactory;
+
+    private final Map<Method, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); //access order for LRU eviction
+
+    private long weight; //guarded by entries
+
+    private final Map<Method, Entry> loads = new ConcurrentHashMap<>(); //loads of TimeoutAware providers in progress
+
+    private ExecutorService refresher; //guarded by this
+
+    private volatile int maxSize = 1000;
+
+    private volatile long maxWeight = -1L;
+
+    private volatile long ttl = 60_000L;
+
+    private volatile long refreshAhead;
+
+    /**
+     * @param providerFactory factory that returns provider instance to load scripts.
+     */
+    public CachingScriptProvider(ObjectFactory<? extends ScriptProvider> providerFactory) {
+        this.providerFactory = Objects.requireNonNull(providerFactory, "Provider factory must not be null");
+    }
+
+    /**
+     * @param provider provider to load scripts.
+     */
+    public CachingScriptProvider(ScriptProvider provider) {
+        this(() -> provider);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ScriptSource getScript(Method method) {
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean load = false;
+        synchronized (entries) {
+            entry = entries.get(method);
+            if (entry == null || entry.isExpired(now, ttl)) {
+                if (entry != null) {
+                    removeEntry(method);
+                }
+                entry = new Entry();
+                entries.put(method, entry);
+                load = true;
+            }
+        }
+        if (load) {
+            return load(method, entry);
+        }
+        if (!entry.source.isDone()) {
+            return await(method, entry);
+        }
+        if (entry.isRefreshNeeded(now, ttl, refreshAhead) && entry.refreshing.compareAndSet(false, true)) {
+            Entry cached = entry;
+            getRefresher().execute(() -> refresh(method, cached));
+        }
+        return entry.source.getNow(null);
+    }
+
+    private ScriptSource load(Method method, Entry entry) {
+        boolean cancellable = false;
+        try {
+            ScriptProvider provider = providerFactory.getObject();
+            if (provider instanceof TimeoutAware) {
+                entry.loader = (TimeoutAware) provider;
+                entry.loadingThread = Thread.currentThread();
+                loads.put(method, entry);
+                cancellable = true;
+            }
+            log.trace("Loading script for {}", method);
+            ScriptSource source = provider.getScript(method);
+            long sourceWeight = weigh(source);
+            synchronized (entries) {
+                //Completing under the lock, so eviction never sees loaded entry before its weight is counted
+                entry.complete(source, sourceWeight);
+                if (entries.get(method) == entry) {
+                    weight += entry.weight;
+                    evict();
+                }
+            }
+            return source;
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                if (entries.get(method) == entry) {
+                    entries.remove(method);
+                }
+            }
+            entry.source.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (cancellable) {
+                loads.remove(method, entry);
+            }
+        }
+    }
+
+    private ScriptSource await(Method method, Entry entry) {
+        entry.waiters.incrementAndGet();
+        try {
+            return entry.source.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException(String.format("Interrupted while waiting for script of %s", method));
+        } finally {
+            entry.waiters.decrementAndGet();
+        }
+    }
+
+    private void refresh(Method method, Entry entry) {
+        try {
+            log.trace("Refreshing script for {}", method);
+            ScriptSource source = providerFactory.getObject().getScript(method);
+            Entry refreshed = new Entry();
+            refreshed.complete(source, weigh(source));
+            synchronized (entries) {
+                if (entries.get(method) == entry) {
+                    weight += refreshed.weight - entry.weight;
+                    entries.put(method, refreshed);
+                    evict();
+                }
+            }
+        } catch (ScriptNotFoundException e) {
+            log.debug("Script for {} is removed from provider", method);
+            invalidate(method);
+        } catch (RuntimeException e) {
+            //Script will be loaded by a caller when it expires
+            log.warn("Cannot refresh script for {}: {}", method, e.toString());
+        }
+    }
+
+    /**
+     * Evicts least recently used loaded scripts until the cache is within its bounds.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Method, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && (entries.size() > maxSize || (maxWeight >= 0 && weight > maxWeight))) {
+            Map.Entry<Method, Entry> eldest = iterator.next();
+            if (eldest.getValue().source.isDone()) {
+                log.trace("Evicting script for {}", eldest.getKey());
+                weight -= eldest.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeEntry(Method method) {
+        Entry removed = entries.remove(method);
+        if (removed != null && removed.source.isDone()) {
+            weight -= removed.weight;
+        }
+    }
+
+    /**
+     * Estimates memory taken by the script text, two bytes per character plus fixed overhead.
+     */
+    private long weigh(ScriptSource source) {
+        try {
+            return ENTRY_OVERHEAD + 2L * source.getScriptAsString().length();
+        } catch (IOException e) {
+            return ENTRY_OVERHEAD;
+        }
+    }
+
+    private synchronized ExecutorService getRefresher() {
+        if (refresher == null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(getClass().getSimpleName() + "-refresh-");
+            threadFactory.setDaemon(true);
+            refresher = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        return refresher;
+    }
+
+    /**
+     * Removes cached script of the method, it will be loaded by the next request.
+     *
+     * @param method scripted method.
+     */
+    public void invalidate(Method method) {
+        synchronized (entries) {
+            Entry entry = entries.get(method);
+            if (entry != null && entry.source.isDone()) {
+                removeEntry(method);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached scripts.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.source.isDone());
+            weight = 0L;
+        }
+    }
+
+    /**
+     * Cancels all script loads in progress if the provider is {@link TimeoutAware}.
+     */
+    @Override
+    public void cancel() {
+        for (Entry entry : loads.values()) {
+            entry.loader.cancel();
+        }
+    }
+
+    /**
+     * Cancels the load of the method's script if the provider is {@link TimeoutAware}, the thread loading
+     * the script is interrupted and no other callers wait for the load. So a timed out invocation cancels only
+     * the load it performs itself and does not fail invocations sharing the load with it. Interrupted callers
+     * waiting for a load stop waiting without cancelling it. Loads of other methods are not affected.
+     *
+     * @param method scripted method which invocation is interrupted.
+     */
+    @Override
+    public void cancel(Method method) {
+        Entry entry = loads.get(method);
+        if (entry == null || !entry.loadingThread.isInterrupted()) {
+            return;
+        }
+        if (entry.waiters.get() > 0) {
+            log.trace("Script load for {} is not cancelled, other callers wait for it", method);
+            return;
+        }
+        entry.loader.cancel();
+    }
+
+    /**
+     * Stops background refresh and clears the cache.
+     */
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (refresher != null) {
+                refresher.shutdownNow();
+                refresher = null;
+            }
+        }
+        synchronized (entries) {
+            entries.clear();
+            weight = 0L;
+        }
+    }
+
+    /**
+     * @return number of cached scripts including scripts being loaded.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return estimated memory taken by cached scripts in bytes.
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize maximum number of cached scripts.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @param maxWeight maximum estimated memory taken by cached scripts in bytes, negative value if not limited.
+     */
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @param ttl time in milliseconds after a script is loaded again, negative value if scripts never expire.
+     */
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public long getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    /**
+     * @param refreshAhead time in milliseconds before expiration when requested script is reloaded in background,
+     *                     zero to disable background reload.
+     */
+    public void setRefreshAhead(long refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * Cached script or a script being loaded.
+     */
+    private static class Entry {
+
+        final CompletableFuture<ScriptSource> source = new CompletableFuture<>();
+
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        final AtomicInteger waiters = new AtomicInteger(); //callers waiting for the load besides the loading one
+
+        volatile TimeoutAware loader; //provider loading the script if it is TimeoutAware
+
+        volatile Thread loadingThread; //thread loading the script if the provider is TimeoutAware
+
+        volatile long loadedAt;
+
+        volatile long weight;
+
+        void complete(ScriptSource script, long weight) {
+            this.weight = weight;
+            this.loadedAt = System.currentTimeMillis();
+            source.complete(script);
+        }
+
+        boolean isExpired(long now, long ttl) {
+            return ttl >= 0 && source.isDone() && now - loadedAt >= ttl;
+        }
+
+        boolean isRefreshNeeded(long now, long ttl, long refreshAhead) {
+            return refreshAhead > 0 && ttl >= 0 && now - loadedAt >= ttl - refreshAhead;
+        }
+    }
+}
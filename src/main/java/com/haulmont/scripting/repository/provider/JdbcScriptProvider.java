@@ -0,0 +1,271 @@
+package com.haulmont.scripting.repository.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scripting.ScriptSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads scripts from a database table with columns for script name, script text and script version.
+ * All scripts are loaded with one query when the provider is initialized and kept in memory, so getting a script
+ * does not access the database. A background thread checks for changes every {@link #setCheckInterval(long) check interval}
+ * by selecting names and versions only, and reloads text of added and changed scripts. The version column can hold
+ * any value that changes together with the script text, e.g. a counter, an update timestamp or a checksum.
+ * <p>
+ * Connections are taken from the {@link DataSource}, so it should be a connection pool in production. Every check
+ * uses one connection, the statement that loads script text is prepared once per check and reused for all changed scripts.
+ * <p>
+ * Script name is built from the repository interface simple name and method name, e.g. {@code TaxCalculator.calculateTax}.
+ * Override {@link #getScriptName(Method)} to use another naming scheme.
+ */
+public class JdbcScriptProvider implements ScriptProvider, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcScriptProvider.class);
+
+    private static final long DEFAULT_CHECK_INTERVAL = 5_000L;
+
+    private final DataSource dataSource;
+
+    private final Map<String, CachedScript> scripts = new ConcurrentHashMap<>();
+
+    private String tableName = "persistent_script";
+
+    private String nameColumn = "name";
+
+    private String textColumn = "source_text";
+
+    private String versionColumn = "version";
+
+    private volatile long checkInterval = DEFAULT_CHECK_INTERVAL;
+
+    private volatile boolean loaded;
+
+    private ScheduledExecutorService checker; //guarded by this
+
+    public JdbcScriptProvider(DataSource dataSource) {
+        this.dataSource = Objects.requireNonNull(dataSource, "Data source must not be null");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ScriptSource getScript(Method method) {
+        String name = getScriptName(method);
+        CachedScript cached = scripts.get(name);
+        if (cached == null) {
+            throw new ScriptNotFoundException(String.format("Script %s is not found in table %s", name, tableName));
+        }
+        return cached.source;
+    }
+
+    /**
+     * Loads all scripts and starts checking for changes. If the database is not available, the error is logged
+     * and scripts are loaded by the first successful check.
+     */
+    @Override
+    public synchronized void afterPropertiesSet() {
+        try {
+            refresh();
+        } catch (SQLException e) {
+            log.warn("Cannot load scripts from table {}, will retry in {} ms: {}", tableName, checkInterval, e.getMessage());
+        }
+        if (checkInterval > 0 && checker == null) {
+            checker = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, getClass().getSimpleName() + "-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checker.scheduleWithFixedDelay(this::checkForChanges, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void checkForChanges() {
+        try {
+            refresh();
+        } catch (SQLException e) {
+            log.warn("Cannot check scripts in table {} for changes: {}", tableName, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Error checking scripts in table " + tableName + " for changes", e);
+        }
+    }
+
+    /**
+     * Synchronizes cached scripts with the table: loads all scripts if they were not loaded yet, otherwise selects
+     * script versions and reloads added and changed scripts only. Scripts removed from the table are removed from the cache.
+     *
+     * @throws SQLException if the table cannot be read, cached scripts are not changed in this case.
+     */
+    public synchronized void refresh() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            if (!loaded) {
+                loadAll(conn);
+                loaded = true;
+            } else {
+                reloadChanged(conn);
+            }
+        }
+    }
+
+    private void loadAll(Connection conn) throws SQLException {
+        Map<String, CachedScript> loadedScripts = new HashMap<>();
+        String sql = String.format("select %s, %s, %s from %s", nameColumn, versionColumn, textColumn, tableName);
+        try (PreparedStatement st = conn.prepareStatement(sql);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                loadedScripts.put(name, createScript(name, rs.getObject(2), rs.getString(3)));
+            }
+        }
+        scripts.keySet().retainAll(loadedScripts.keySet());
+        scripts.putAll(loadedScripts);
+        log.info("Loaded {} scripts from table {}", loadedScripts.size(), tableName);
+    }
+
+    private void reloadChanged(Connection conn) throws SQLException {
+        Set<String> names = new HashSet<>();
+        Set<String> changed = new HashSet<>();
+        String sql = String.format("select %s, %s from %s", nameColumn, versionColumn, tableName);
+        try (PreparedStatement st = conn.prepareStatement(sql);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                names.add(name);
+                CachedScript cached = scripts.get(name);
+                if (cached == null || !Objects.equals(cached.version, rs.getObject(2))) {
+                    changed.add(name);
+                }
+            }
+        }
+        if (scripts.keySet().retainAll(names)) {
+            log.debug("Scripts removed from table {}", tableName);
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        String textSql = String.format("select %s, %s from %s where %s = ?", versionColumn, textColumn, tableName, nameColumn);
+        try (PreparedStatement st = conn.prepareStatement(textSql)) {
+            for (String name : changed) {
+                st.setString(1, name);
+                try (ResultSet rs = st.executeQuery()) {
+                    if (rs.next()) {
+                        log.debug("Script {} is changed", name);
+                        scripts.put(name, createScript(name, rs.getObject(1), rs.getString(2)));
+                    } else {
+                        scripts.remove(name);
+                    }
+                }
+            }
+        }
+    }
+
+    private CachedScript createScript(String name, Object version, String text) {
+        CachedScript cached = scripts.get(name);
+        if (cached != null && cached.source.getScriptAsString().equals(text)) {
+            return new CachedScript(version, cached.source);
+        }
+        VersionedScriptSource source = new VersionedScriptSource(text, VersionedScriptSource.nextVersion(), name,
+                String.format("table %s, script %s", tableName, name));
+        return new CachedScript(version, source);
+    }
+
+    /**
+     * Stops checking for changes and clears cached scripts.
+     */
+    @Override
+    public synchronized void destroy() {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+        scripts.clear();
+        loaded = false;
+    }
+
+    /**
+     * Creates script name based on method signature.
+     *
+     * @param method scripted method.
+     * @return script name, value of the name column.
+     */
+    protected String getScriptName(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName();
+    }
+
+    /**
+     * Sets how often the table is checked for changed scripts. Must be set before the provider is initialized.
+     *
+     * @param checkInterval check interval in milliseconds, zero or negative value - never check, use {@link #refresh()}
+     *                      to reload scripts.
+     */
+    @Value("${script.source.jdbc.check.interval:" + DEFAULT_CHECK_INTERVAL + "}")
+    public void setCheckInterval(long checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    public long getCheckInterval() {
+        return checkInterval;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getNameColumn() {
+        return nameColumn;
+    }
+
+    public void setNameColumn(String nameColumn) {
+        this.nameColumn = nameColumn;
+    }
+
+    public String getTextColumn() {
+        return textColumn;
+    }
+
+    public void setTextColumn(String textColumn) {
+        this.textColumn = textColumn;
+    }
+
+    public String getVersionColumn() {
+        return versionColumn;
+    }
+
+    public void setVersionColumn(String versionColumn) {
+        this.versionColumn = versionColumn;
+    }
+
+    private static class CachedScript {
+
+        final Object version;
+
+        final VersionedScriptSource source;
+
+        CachedScript(Object version, VersionedScriptSource source) {
+            this.version = version;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.haulmont.scripting.repository.provider;
+
+import org.springframework.scripting.ScriptSource;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Maps script sources to versions of their text. {@link VersionedScriptSource} provides its own version, for other
+ * sources the version is a content hash of the text. The version of every such source instance is remembered
+ * until the source reports modification, so its text is not read and hashed again.
+ * Versions are shared by compiled script caches and memoized results: a modification reported by a source is reset
+ * when its text is read, so all of them have to see the version of the text that was read last.
+ */
+public final class ScriptSourceVersions {
+
+    private static final Map<ScriptSource, String> versions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ScriptSourceVersions() {
+    }
+
+    /**
+     * Returns version of the text that was read from the source last time. The source may have been modified since,
+     * callers check {@link ScriptSource#isModified()} before using the version.
+     *
+     * @param source script source.
+     * @return script version, null if the text was not read yet.
+     */
+    public static String getRememberedVersion(ScriptSource source) {
+        if (source instanceof VersionedScriptSource) {
+            return getVersion((VersionedScriptSource) source);
+        }
+        return versions.get(source);
+    }
+
+    /**
+     * Reads script text and remembers its version.
+     *
+     * @param source script source.
+     * @return script version.
+     * @throws IOException if script text cannot be read.
+     */
+    public static String readVersion(ScriptSource source) throws IOException {
+        return getVersion(source, source.getScriptAsString());
+    }
+
+    /**
+     * Remembers version of the text that has just been read from the source.
+     *
+     * @param source     script source.
+     * @param scriptText current text of the source.
+     * @return script version.
+     */
+    public static String getVersion(ScriptSource source, String scriptText) {
+        if (source instanceof VersionedScriptSource) {
+            return getVersion((VersionedScriptSource) source);
+        }
+        String version = DigestUtils.md5DigestAsHex(scriptText.getBytes(StandardCharsets.UTF_8));
+        versions.put(source, version);
+        return version;
+    }
+
+    private static String getVersion(VersionedScriptSource source) {
+        //Prefix keeps provided versions apart from content hashes
+        return "v" + source.getVersion();
+    }
+}
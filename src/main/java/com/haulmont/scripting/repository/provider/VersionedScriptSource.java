@@ -0,0 +1,79 @@
+package com.haulmont.scripting.repository.provider;
+
+import org.springframework.scripting.ScriptSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable script source that holds script text loaded once. When script text changes, provider creates
+ * a new instance with a new version, so the instance itself never reports modification. Compiled script caches
+ * and memoized results use the version instead of hashing the text, so versions must be unique among all sources,
+ * providers get them from {@link #nextVersion()}.
+ */
+public class VersionedScriptSource implements ScriptSource {
+
+    private static final AtomicLong versionCounter = new AtomicLong();
+
+    private final String script;
+
+    private final long version;
+
+    private final String suggestedClassName;
+
+    private final String description;
+
+    /**
+     * @param script             script text.
+     * @param version            version of the text, see {@link #nextVersion()}.
+     * @param suggestedClassName class name for the compiled script.
+     * @param description        source description for logs.
+     */
+    public VersionedScriptSource(String script, long version, String suggestedClassName, String description) {
+        this.script = script;
+        this.version = version;
+        this.suggestedClassName = suggestedClassName;
+        this.description = description;
+    }
+
+    @Override
+    public String getScriptAsString() {
+        return script;
+    }
+
+    /**
+     * Source text is immutable, changed script is represented by a new source instance.
+     *
+     * @return always false.
+     */
+    @Override
+    public boolean isModified() {
+        return false;
+    }
+
+    @Override
+    public String suggestedClassName() {
+        return suggestedClassName;
+    }
+
+    /**
+     * @return version of the script text, it is increased every time the text is reloaded with changes.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return new version that is not used by any other source.
+     */
+    public static long nextVersion() {
+        return versionCounter.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "VersionedScriptSource{" +
+                "description='" + description + '\'' +
+                ", version=" + version +
+                '}';
+    }
+}
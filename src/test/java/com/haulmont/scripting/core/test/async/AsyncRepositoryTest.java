@@ -0,0 +1,72 @@
+package com.haulmont.scripting.core.test.async;
+
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/async/async-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class AsyncRepositoryTest {
+
+    @Autowired
+    private AsyncTestScriptRepository repo;
+
+    @Test
+    public void testAsyncExecution() throws Exception {
+        String threadName = repo.getThreadName().get(5, TimeUnit.SECONDS);
+        assertNotEquals(Thread.currentThread().getName(), threadName);
+        assertTrue(threadName, threadName.startsWith("AsyncTestScriptRepository-"));
+    }
+
+    @Test
+    public void testCompletionStage() throws Exception {
+        Integer result = repo.sum(2, 3).toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(5), result);
+    }
+
+    @Test
+    public void testTimeoutWithScriptResult() throws Exception {
+        ScriptResult<Long> result = repo.runEndlessLoop().get(5, TimeUnit.SECONDS);
+        assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+        assertEquals(TimeoutException.class, result.getError().getClass());
+    }
+
+    @Test
+    public void testTimeoutWithException() throws Exception {
+        CompletableFuture<Long> result = repo.runAnotherEndlessLoop();
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Future must be completed exceptionally on timeout");
+        } catch (ExecutionException e) {
+            assertEquals(ScriptEvaluationException.class, e.getCause().getClass());
+            assertEquals(TimeoutException.class, e.getCause().getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testScriptError() throws Exception {
+        ScriptResult<String> result = repo.failWithError().get(5, TimeUnit.SECONDS);
+        assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+        assertEquals(ExecutionException.class, result.getError().getClass());
+    }
+
+    @Test
+    public void testDefaultMethod() throws Exception {
+        assertEquals(AsyncTestScriptRepository.DEFAULT_GREETING, repo.getGreeting().get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,35 @@
+package com.haulmont.scripting.core.test.async;
+
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@ScriptRepository
+public interface AsyncTestScriptRepository {
+
+    String DEFAULT_GREETING = "Hello from default method";
+
+    @GroovyScript
+    CompletableFuture<String> getThreadName();
+
+    @GroovyScript
+    CompletionStage<Integer> sum(@ScriptParam("a") int a, @ScriptParam("b") int b);
+
+    @GroovyScript(timeout = 200L)
+    CompletableFuture<ScriptResult<Long>> runEndlessLoop();
+
+    @GroovyScript(timeout = 200L)
+    CompletableFuture<Long> runAnotherEndlessLoop();
+
+    @GroovyScript
+    CompletableFuture<ScriptResult<String>> failWithError();
+
+    @GroovyScript
+    default CompletableFuture<String> getGreeting() {
+        return CompletableFuture.completedFuture(DEFAULT_GREETING);
+    }
+}
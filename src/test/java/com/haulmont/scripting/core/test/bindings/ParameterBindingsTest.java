@@ -0,0 +1,166 @@
+package com.haulmont.scripting.core.test.bindings;
+
+import com.haulmont.scripting.repository.evaluator.ParameterBindings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that parameter bindings never change the caller's arguments and behave as a regular map.
+ */
+public class ParameterBindingsTest {
+
+    private final ParameterBindings.Layout layout = new ParameterBindings.Layout(new String[]{"name", "age"});
+
+    @Test
+    public void testWritesDoNotChangeArgs() {
+        Object[] args = {"Alice", 30};
+        ParameterBindings bindings = layout.bind(args);
+        assertEquals("Alice", bindings.put("name", "Bob"));
+        assertEquals(30, bindings.remove("age"));
+        assertArrayEquals(new Object[]{"Alice", 30}, args);
+        assertEquals("Bob", bindings.get("name"));
+        assertFalse(bindings.containsKey("age"));
+    }
+
+    @Test
+    public void testEntrySetValueDoesNotChangeArgs() {
+        Object[] args = {"Alice", 30};
+        ParameterBindings bindings = layout.bind(args);
+        for (Map.Entry<String, Object> entry : bindings.entrySet()) {
+            entry.setValue(entry.getKey());
+        }
+        assertArrayEquals(new Object[]{"Alice", 30}, args);
+        assertEquals("name", bindings.get("name"));
+        assertEquals("age", bindings.get("age"));
+    }
+
+    @Test
+    public void testCopiesAreIndependent() {
+        Object[] args = {"Alice", 30};
+        ParameterBindings bindings = layout.bind(args);
+        ParameterBindings copy = bindings.copy();
+        copy.put("name", "Bob");
+        bindings.remove("age");
+        copy.entrySet().iterator().next().setValue("Carol");
+        ParameterBindings secondCopy = copy.copy();
+        secondCopy.put("age", 40);
+
+        assertArrayEquals(new Object[]{"Alice", 30}, args);
+        assertEquals("Alice", bindings.get("name"));
+        assertFalse(bindings.containsKey("age"));
+        assertEquals("Carol", copy.get("name"));
+        assertEquals(30, copy.get("age"));
+        assertEquals(40, secondCopy.get("age"));
+    }
+
+    @Test
+    public void testCopiedExtraVariables() {
+        ParameterBindings bindings = layout.bind(new Object[]{"Alice", 30});
+        bindings.put("city", "London");
+        ParameterBindings copy = bindings.copy();
+        copy.put("city", "Paris");
+        copy.put("country", "France");
+        assertEquals("London", bindings.get("city"));
+        assertFalse(bindings.containsKey("country"));
+        assertEquals(3, bindings.size());
+        assertEquals(4, copy.size());
+    }
+
+    @Test
+    public void testSizeAndIterationAfterRemove() {
+        ParameterBindings bindings = layout.bind(new Object[]{"Alice", null});
+        bindings.put("city", "London");
+        assertEquals(3, bindings.size());
+        assertTrue(bindings.containsKey("age"));
+
+        assertNull(bindings.remove("age"));
+        assertNull(bindings.remove("age"));
+        assertEquals(2, bindings.size());
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "Alice");
+        expected.put("city", "London");
+        assertEquals(expected, new LinkedHashMap<>(bindings));
+
+        Iterator<Map.Entry<String, Object>> iterator = bindings.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(1, bindings.size());
+        assertEquals(Arrays.asList("city"), Arrays.asList(bindings.keySet().toArray()));
+
+        assertNull(bindings.put("age", 31));
+        assertEquals(2, bindings.size());
+        assertEquals(31, bindings.get("age"));
+    }
+
+    @Test
+    public void testExtraVariables() {
+        ParameterBindings bindings = layout.bind(new Object[]{"Alice", 30});
+        assertNull(bindings.get("city"));
+        assertFalse(bindings.containsKey("city"));
+        assertNull(bindings.put("city", "London"));
+        assertEquals("London", bindings.put("city", "Paris"));
+        assertEquals("Paris", bindings.get("city"));
+        assertEquals(Arrays.asList("name", "age", "city"), Arrays.asList(bindings.keySet().toArray()));
+        assertEquals("Paris", bindings.remove("city"));
+        assertFalse(bindings.containsKey("city"));
+        assertEquals(2, bindings.size());
+    }
+
+    @Test
+    public void testRemovedSlotEntryValue() {
+        ParameterBindings bindings = layout.bind(new Object[]{"Alice", 30});
+        Map.Entry<String, Object> entry = bindings.entrySet().iterator().next();
+        bindings.remove("name");
+        assertNull(entry.getValue());
+        assertNull(entry.setValue("Bob"));
+        assertEquals("Bob", bindings.get("name"));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetNullKey() {
+        layout.bind(new Object[]{"Alice", 30}).get(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testContainsNullKey() {
+        layout.bind(new Object[]{"Alice", 30}).containsKey(null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNullKey() {
+        layout.bind(new Object[]{"Alice", 30}).put(null, "value");
+    }
+
+    @Test
+    public void testNoParameters() {
+        ParameterBindings bindings = new ParameterBindings.Layout(new String[0]).bind(null);
+        assertTrue(bindings.isEmpty());
+        bindings.put("city", "London");
+        assertEquals(1, bindings.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateParameterNames() {
+        new ParameterBindings.Layout(new String[]{"name", "name"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongArgumentCount() {
+        layout.bind(new Object[]{"Alice"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullArgsForParameters() {
+        layout.bind(null);
+    }
+}
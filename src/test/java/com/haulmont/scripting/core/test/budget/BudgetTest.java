@@ -0,0 +1,108 @@
+package com.haulmont.scripting.core.test.budget;
+
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ResourceBudgetExceededException;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.evaluator.ScriptResourceUsage;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.metrics.MethodMetricsSnapshot;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.haulmont.scripting.core.test.budget.BudgetTestScriptRepository.ALLOCATION_BUDGET;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/budget/budget-test-spring.xml"})
+@TestPropertySource(properties = "script.repository.resources.enabled=true")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class BudgetTest {
+
+    @Autowired
+    private BudgetTestScriptRepository repo;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Test
+    public void testResourceUsageReported() throws NoSuchMethodException {
+        ScriptResult<Integer> result = repo.allocate(1024);
+        assertEquals(Integer.valueOf(1024), result.getValue());
+        ScriptResourceUsage usage = result.getResourceUsage();
+        assertNotNull(usage);
+        assertTrue(usage.getCpuNanos() > 0);
+        assertTrue(usage.getAllocatedBytes() >= 1024 * 1024);
+
+        MethodMetricsSnapshot metrics = getMetrics(BudgetTestScriptRepository.class.getMethod("allocate", Integer.class));
+        assertTrue(metrics.getCpuNanos() >= usage.getCpuNanos());
+        assertTrue(metrics.getAllocatedBytes() >= usage.getAllocatedBytes());
+    }
+
+    @Test
+    public void testWithinBudget() {
+        assertEquals(Integer.valueOf(1024), repo.allocateWithinBudget(1024));
+    }
+
+    @Test(timeout = 10_000L)
+    public void testCpuBudgetExceeded() throws NoSuchMethodException {
+        Method spin = BudgetTestScriptRepository.class.getMethod("spin");
+        long violations = getMetrics(spin).getBudgetViolations();
+        try {
+            repo.spin();
+            fail("Endless loop must be stopped when CPU budget is exceeded");
+        } catch (ScriptEvaluationException e) {
+            ResourceBudgetExceededException cause = (ResourceBudgetExceededException) e.getCause();
+            assertTrue(cause.getUsage().getCpuNanos() > TimeUnit.MILLISECONDS.toNanos(100L));
+        }
+        assertEquals(violations + 1, getMetrics(spin).getBudgetViolations());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test(timeout = 10_000L)
+    public void testCallerInterruptPreserved() {
+        Thread.currentThread().interrupt();
+        try {
+            repo.spinIgnoringInterrupts(500L);
+            fail("Invocation must fail when CPU budget is exceeded");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getCause() instanceof ResourceBudgetExceededException);
+        } finally {
+            assertTrue("Interrupted status of the caller must be kept", Thread.interrupted());
+        }
+    }
+
+    @Test(timeout = 10_000L)
+    public void testAllocationBudgetExceeded() {
+        ScriptResult<Long> result = repo.allocateForever();
+        assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+        ResourceBudgetExceededException error = (ResourceBudgetExceededException) result.getError();
+        assertTrue(error.getUsage().getAllocatedBytes() > ALLOCATION_BUDGET);
+    }
+
+    @Test(timeout = 10_000L)
+    public void testAsyncBudgetExceeded() throws InterruptedException {
+        try {
+            repo.allocateForeverAsync().get();
+            fail("Endless allocation must be stopped when allocation budget is exceeded");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ScriptEvaluationException);
+            assertTrue(e.getCause().getCause() instanceof ResourceBudgetExceededException);
+        }
+    }
+
+    private MethodMetricsSnapshot getMetrics(Method method) {
+        return scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots().get(method);
+    }
+}
@@ -0,0 +1,41 @@
+package com.haulmont.scripting.core.test.budget;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository
+public interface BudgetTestScriptRepository {
+
+    long ALLOCATION_BUDGET = 16L * 1024 * 1024;
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator")
+    ScriptResult<Integer> allocate(@ScriptParam("count") Integer count);
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator", cpuBudget = 10_000L, allocationBudget = 4 * ALLOCATION_BUDGET)
+    Integer allocateWithinBudget(@ScriptParam("count") Integer count);
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator", cpuBudget = 100L)
+    long spin();
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator", cpuBudget = 50L)
+    default long spinIgnoringInterrupts(Long millis) {
+        //No script, busy waiting like blocking I/O that ignores interrupts
+        long deadline = System.currentTimeMillis() + millis;
+        long counter = 0;
+        while (System.currentTimeMillis() < deadline) {
+            counter++;
+        }
+        return counter;
+    }
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator", allocationBudget = ALLOCATION_BUDGET)
+    ScriptResult<Long> allocateForever();
+
+    @ScriptMethod(evaluatorBeanName = "groovyNativeEvaluator", allocationBudget = ALLOCATION_BUDGET)
+    CompletableFuture<Long> allocateForeverAsync();
+
+}
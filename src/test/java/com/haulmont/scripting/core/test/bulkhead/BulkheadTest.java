@@ -0,0 +1,141 @@
+package com.haulmont.scripting.core.test.bulkhead;
+
+import com.haulmont.scripting.repository.evaluator.ConcurrencyLimitExceededException;
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.metrics.MethodMetricsSnapshot;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/bulkhead/bulkhead-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class BulkheadTest {
+
+    @Autowired
+    private BulkheadTestScriptRepository repo;
+
+    @Autowired
+    private LimitedTestScriptRepository limitedRepo;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Before
+    public void resetMetrics() {
+        scriptRepositoryFactoryBean.getMetricsRegistry().reset();
+    }
+
+    @Test
+    public void testRejectedOverLimit() throws Exception {
+        CompletableFuture<Long> running = repo.sleep(300L);
+        assertTrue(getAsyncError(repo.sleep(0L)) instanceof ConcurrencyLimitExceededException);
+        assertEquals(Long.valueOf(300L), running.get());
+        //Slot is released when the future completes, it may happen right after the caller gets the value
+        Thread.sleep(100L);
+        assertEquals(Long.valueOf(0L), repo.sleep(0L).get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(BulkheadTestScriptRepository.class.getMethod("sleep", Long.class));
+        assertEquals(3, snapshot.getInvocations());
+        assertEquals(0, snapshot.getFailures());
+        assertEquals(1, snapshot.getRejectedCalls());
+    }
+
+    @Test
+    public void testRejectedStatus() throws Exception {
+        CompletableFuture<ScriptResult<Long>> running = repo.sleepWrapped(300L);
+        ScriptResult<Long> rejected = repo.sleepWrapped(0L).get();
+        assertEquals(EvaluationStatus.REJECTED, rejected.getStatus());
+        assertTrue(rejected.getError() instanceof ConcurrencyLimitExceededException);
+        assertEquals(EvaluationStatus.SUCCESS, running.get().getStatus());
+    }
+
+    @Test
+    public void testWaitQueue() throws Exception {
+        CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> repo.sleepQueued(300L));
+        Thread.sleep(100L);
+        //The second caller waits for the slot, the third one finds the queue full
+        CompletableFuture<Long> queued = CompletableFuture.supplyAsync(() -> repo.sleepQueued(0L));
+        Thread.sleep(100L);
+        try {
+            repo.sleepQueued(0L);
+            fail("Invocation must be rejected");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+        }
+        assertEquals(Long.valueOf(300L), running.get());
+        assertEquals(Long.valueOf(0L), queued.get());
+    }
+
+    @Test
+    public void testAsyncCallerNotQueued() throws Exception {
+        CompletableFuture<Long> running = repo.sleepQueuedAsync(300L);
+        long start = System.nanoTime();
+        CompletableFuture<Long> rejected = repo.sleepQueuedAsync(0L);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200L));
+        assertTrue(getAsyncError(rejected) instanceof ConcurrencyLimitExceededException);
+        assertEquals(Long.valueOf(300L), running.get());
+    }
+
+    @Test
+    public void testAdaptiveLimit() throws Exception {
+        CompletableFuture<Long> running = CompletableFuture.supplyAsync(() -> repo.sleepAdaptive(200L));
+        Thread.sleep(100L);
+        assertEquals(Long.valueOf(0L), repo.sleepAdaptive(0L));
+        assertEquals(Long.valueOf(200L), running.get());
+
+        //The slow invocation has decreased the limit to one
+        running = CompletableFuture.supplyAsync(() -> repo.sleepAdaptive(300L));
+        Thread.sleep(100L);
+        try {
+            repo.sleepAdaptive(0L);
+            fail("Concurrency limit must be decreased");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+        }
+        assertEquals(Long.valueOf(300L), running.get());
+    }
+
+    @Test
+    public void testRepositoryLimit() throws Exception {
+        CompletableFuture<Long> running = limitedRepo.sleep(300L);
+        assertTrue(getAsyncError(limitedRepo.sleepAgain(0L)) instanceof ConcurrencyLimitExceededException);
+        assertEquals(Long.valueOf(300L), running.get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(LimitedTestScriptRepository.class.getMethod("sleepAgain", Long.class));
+        assertEquals(1, snapshot.getRejectedCalls());
+    }
+
+    @Test
+    public void testXmlMapping() throws Exception {
+        CompletableFuture<Long> running = repo.sleepXml(300L);
+        assertTrue(getAsyncError(repo.sleepXml(0L)) instanceof ConcurrencyLimitExceededException);
+        assertEquals(Long.valueOf(300L), running.get());
+    }
+
+    private Throwable getAsyncError(CompletableFuture<Long> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Invocation must be rejected");
+            return null;
+        } catch (ExecutionException e) {
+            return ExceptionUtils.getRootCause(e);
+        }
+    }
+}
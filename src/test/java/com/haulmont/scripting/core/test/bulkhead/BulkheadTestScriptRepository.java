@@ -0,0 +1,31 @@
+package com.haulmont.scripting.core.test.bulkhead;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository
+public interface BulkheadTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "sleepingProvider", maxConcurrentCalls = 1)
+    CompletableFuture<Long> sleep(@ScriptParam("millis") Long millis);
+
+    @ScriptMethod(providerBeanName = "sleepingProvider", maxConcurrentCalls = 1)
+    CompletableFuture<ScriptResult<Long>> sleepWrapped(@ScriptParam("millis") Long millis);
+
+    @ScriptMethod(providerBeanName = "sleepingProvider", maxConcurrentCalls = 1, maxWaitingCalls = 1, maxWaitTime = 5000L)
+    Long sleepQueued(@ScriptParam("millis") Long millis);
+
+    @ScriptMethod(providerBeanName = "sleepingProvider", maxConcurrentCalls = 1, maxWaitingCalls = 1, maxWaitTime = 5000L)
+    CompletableFuture<Long> sleepQueuedAsync(@ScriptParam("millis") Long millis);
+
+    @ScriptMethod(providerBeanName = "sleepingProvider", maxConcurrentCalls = 2, concurrencyLatencyThreshold = 20L)
+    Long sleepAdaptive(@ScriptParam("millis") Long millis);
+
+    @BulkheadScript
+    CompletableFuture<Long> sleepXml(@ScriptParam("millis") Long millis);
+
+}
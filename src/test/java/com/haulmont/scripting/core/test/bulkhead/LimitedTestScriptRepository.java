@@ -0,0 +1,18 @@
+package com.haulmont.scripting.core.test.bulkhead;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository(maxConcurrentCalls = 1)
+public interface LimitedTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "sleepingProvider")
+    CompletableFuture<Long> sleep(@ScriptParam("millis") Long millis);
+
+    @ScriptMethod(providerBeanName = "sleepingProvider")
+    CompletableFuture<Long> sleepAgain(@ScriptParam("millis") Long millis);
+
+}
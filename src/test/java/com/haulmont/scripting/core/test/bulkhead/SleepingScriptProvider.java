@@ -0,0 +1,20 @@
+package com.haulmont.scripting.core.test.bulkhead;
+
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.lang.reflect.Method;
+
+/**
+ * Provider that returns the same script for all methods: it sleeps for {@code millis} and returns them.
+ */
+public class SleepingScriptProvider implements ScriptProvider {
+
+    private final ScriptSource script = new StaticScriptSource("Thread.sleep(millis); return millis", "sleep");
+
+    @Override
+    public ScriptSource getScript(Method method) {
+        return script;
+    }
+}
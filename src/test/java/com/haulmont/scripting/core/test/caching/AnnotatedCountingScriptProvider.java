@@ -0,0 +1,7 @@
+package com.haulmont.scripting.core.test.caching;
+
+import com.haulmont.scripting.repository.CachedScripts;
+
+@CachedScripts(maxSize = 5)
+public class AnnotatedCountingScriptProvider extends CountingScriptProvider {
+}
@@ -0,0 +1,236 @@
+package com.haulmont.scripting.core.test.caching;
+
+import com.haulmont.scripting.repository.config.CachedScriptsBeanDefinitionDecorator;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.provider.CachingScriptProvider;
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/caching/caching-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class CachingScriptProviderTest {
+
+    @Autowired
+    private CachingTestScriptRepository repo;
+
+    @Autowired
+    private ApplicationContext ctx;
+
+    @Test
+    public void testAnnotatedProviderCached() {
+        assertTrue(ctx.getBean("annotatedProvider") instanceof CachingScriptProvider);
+        CountingScriptProvider target = (CountingScriptProvider) ctx.getBean(
+                CachedScriptsBeanDefinitionDecorator.TARGET_NAME_PREFIX + "annotatedProvider");
+        int loads = target.getLoads();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Hello, Alice", repo.greet("Alice"));
+        }
+        assertTrue(target.getLoads() <= loads + 1);
+        assertEquals(10, ((CachingScriptProvider) ctx.getBean("annotatedProvider")).getMaxSize());
+    }
+
+    @Test
+    public void testInheritedAnnotationCached() {
+        assertTrue(ctx.getBean("inheritedProvider") instanceof CachingScriptProvider);
+        assertEquals(5, ((CachingScriptProvider) ctx.getBean("inheritedProvider")).getMaxSize());
+    }
+
+    @Test
+    public void testXmlProviderCached() {
+        CachingScriptProvider provider = (CachingScriptProvider) ctx.getBean("xmlProvider");
+        assertFalse(ctx.isSingleton(CachedScriptsBeanDefinitionDecorator.TARGET_NAME_PREFIX + "xmlProvider"));
+        assertEquals("first", repo.first());
+        assertEquals("second", repo.second());
+        assertEquals("third", repo.third());
+        assertEquals(2, provider.size());
+        try {
+            repo.missingScript();
+            fail("Method without script must fail");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(ExceptionUtils.indexOfThrowable(e, UnsupportedOperationException.class) >= 0);
+        }
+        assertEquals(2, provider.size());
+    }
+
+    @Test
+    public void testConcurrentLoadsDeduplicated() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        Method method = getMethod("first");
+        target.blockLoads();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ScriptSource>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> provider.getScript(method)));
+            }
+            Thread.sleep(200L);
+            target.releaseLoads();
+            ScriptSource source = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ScriptSource> result : results) {
+                assertSame(source, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, target.getLoads());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        provider.setTtl(100L);
+        Method method = getMethod("first");
+        ScriptSource source = provider.getScript(method);
+        assertSame(source, provider.getScript(method));
+        Thread.sleep(150L);
+        provider.getScript(method);
+        assertEquals(2, target.getLoads());
+    }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        provider.setTtl(1_000L);
+        provider.setRefreshAhead(900L);
+        Method method = getMethod("first");
+        ScriptSource source = provider.getScript(method);
+        Thread.sleep(150L);
+        assertSame(source, provider.getScript(method));
+        for (int i = 0; i < 50 && target.getLoads() < 2; i++) {
+            Thread.sleep(20L);
+        }
+        assertEquals(2, target.getLoads());
+        assertEquals(1, provider.size());
+        provider.destroy();
+    }
+
+    @Test
+    public void testWeightBound() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        provider.getScript(getMethod("first"));
+        long entryWeight = provider.getWeight();
+        assertTrue(entryWeight > 2 * "return 'first'".length());
+
+        provider.setMaxWeight(entryWeight * 3 / 2);
+        provider.getScript(getMethod("third"));
+        assertEquals(1, provider.size());
+        assertEquals(entryWeight, provider.getWeight());
+        provider.getScript(getMethod("third"));
+        assertEquals(2, target.getLoads());
+    }
+
+    @Test
+    public void testMissingScriptNotCached() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        Method method = getMethod("missingScript");
+        for (int i = 0; i < 2; i++) {
+            try {
+                provider.getScript(method);
+                fail("Missing script must not be returned");
+            } catch (ScriptNotFoundException ignored) {
+            }
+        }
+        assertEquals(2, target.getLoads());
+        assertEquals(0, provider.size());
+    }
+
+    @Test
+    public void testCancelLoad() throws Exception {
+        CountingScriptProvider target = new CountingScriptProvider();
+        CachingScriptProvider provider = new CachingScriptProvider(target);
+        Method method = getMethod("first");
+        target.blockLoads();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ScriptSource> loading = executor.submit(() -> provider.getScript(method));
+            Thread.sleep(100L);
+            Future<ScriptSource> waiting = executor.submit(() -> provider.getScript(method));
+            Thread.sleep(100L);
+            provider.cancel();
+            for (Future<ScriptSource> result : Arrays.asList(loading, waiting)) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                    fail("Cancelled load must fail");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+            assertEquals(1, target.getLoads());
+            assertEquals(0, provider.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancelLoadOfMethod() throws Exception {
+        List<CountingScriptProvider> targets = new CopyOnWriteArrayList<>();
+        CachingScriptProvider provider = new CachingScriptProvider(() -> {
+            CountingScriptProvider target = new CountingScriptProvider();
+            target.blockLoads();
+            targets.add(target);
+            return target;
+        });
+        Method first = getMethod("first");
+        Method second = getMethod("second");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<ScriptSource> loadingFirst = executor.submit(() -> provider.getScript(first));
+            Thread.sleep(100L);
+            Future<ScriptSource> waitingFirst = executor.submit(() -> provider.getScript(first));
+            Future<ScriptSource> loadingSecond = executor.submit(() -> provider.getScript(second));
+            Thread.sleep(100L);
+            assertEquals(2, targets.size());
+
+            //Timed out waiting caller does not cancel the load of another caller
+            waitingFirst.cancel(true);
+            provider.cancel(first);
+            //Timed out loading caller does not cancel the load of another method
+            loadingSecond.cancel(true);
+            provider.cancel(first);
+            for (CountingScriptProvider target : targets) {
+                assertFalse(target.isCancelled());
+            }
+
+            provider.cancel(second);
+            assertEquals(1, targets.stream().filter(CountingScriptProvider::isCancelled).count());
+            targets.forEach(CountingScriptProvider::releaseLoads);
+            assertEquals("return 'first'", loadingFirst.get(5, TimeUnit.SECONDS).getScriptAsString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Method getMethod(String name) throws NoSuchMethodException {
+        return CachingTestScriptRepository.class.getMethod(name);
+    }
+}
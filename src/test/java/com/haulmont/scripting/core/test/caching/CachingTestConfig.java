@@ -0,0 +1,17 @@
+package com.haulmont.scripting.core.test.caching;
+
+import com.haulmont.scripting.repository.CachedScripts;
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.caching"})
+public class CachingTestConfig {
+
+    @Bean
+    @CachedScripts(maxSize = 10, ttl = -1)
+    public CountingScriptProvider annotatedProvider() {
+        return new CountingScriptProvider();
+    }
+}
@@ -0,0 +1,25 @@
+package com.haulmont.scripting.core.test.caching;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository
+public interface CachingTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "annotatedProvider")
+    String greet(@ScriptParam("name") String name);
+
+    @ScriptMethod(providerBeanName = "xmlProvider")
+    String first();
+
+    @ScriptMethod(providerBeanName = "xmlProvider")
+    String second();
+
+    @ScriptMethod(providerBeanName = "xmlProvider")
+    String third();
+
+    @ScriptMethod(providerBeanName = "xmlProvider")
+    String missingScript();
+
+}
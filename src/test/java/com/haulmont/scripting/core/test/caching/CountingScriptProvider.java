@@ -0,0 +1,84 @@
+package com.haulmont.scripting.core.test.caching;
+
+import com.haulmont.scripting.repository.evaluator.TimeoutAware;
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import com.haulmont.scripting.repository.provider.VersionedScriptSource;
+import org.springframework.scripting.ScriptSource;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Provider that counts script loads and can block them until released or cancelled. Blocked loads ignore interrupts
+ * like blocking I/O does.
+ */
+public class CountingScriptProvider implements ScriptProvider, TimeoutAware {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private volatile CountDownLatch loadLatch;
+
+    private volatile boolean cancelled;
+
+    @Override
+    public ScriptSource getScript(Method method) {
+        int load = loads.incrementAndGet();
+        CountDownLatch latch = loadLatch;
+        if (latch != null) {
+            awaitUninterruptibly(latch);
+        }
+        if (cancelled) {
+            throw new IllegalStateException("Script load is cancelled");
+        }
+        if (method.getName().startsWith("missing")) {
+            throw new ScriptNotFoundException(String.format("No script for %s", method.getName()));
+        }
+        String text = "greet".equals(method.getName()) ? "return 'Hello, ' + name" : "return '" + method.getName() + "'";
+        return new VersionedScriptSource(text, VersionedScriptSource.nextVersion(), method.getName(), "counting provider script");
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        CountDownLatch latch = loadLatch;
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    private void awaitUninterruptibly(CountDownLatch latch) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (latch.getCount() > 0 && System.nanoTime() < deadline) {
+            if (Thread.currentThread().isInterrupted()) {
+                //Keeping interrupted status set while blocked
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            try {
+                latch.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getLoads() {
+        return loads.get();
+    }
+
+    public void blockLoads() {
+        loadLatch = new CountDownLatch(1);
+    }
+
+    public void releaseLoads() {
+        loadLatch.countDown();
+    }
+}
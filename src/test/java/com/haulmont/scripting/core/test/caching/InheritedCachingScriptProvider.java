@@ -0,0 +1,7 @@
+package com.haulmont.scripting.core.test.caching;
+
+/**
+ * Provider that inherits {@link com.haulmont.scripting.repository.CachedScripts} from its superclass.
+ */
+public class InheritedCachingScriptProvider extends AnnotatedCountingScriptProvider {
+}
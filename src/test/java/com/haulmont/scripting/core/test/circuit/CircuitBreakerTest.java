@@ -0,0 +1,161 @@
+package com.haulmont.scripting.core.test.circuit;
+
+import com.haulmont.scripting.repository.evaluator.CircuitBreakerOpenException;
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.metrics.MethodMetricsSnapshot;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.concurrent.ExecutionException;
+
+import static com.haulmont.scripting.core.test.circuit.CircuitTestScriptProvider.EVALUATIONS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/circuit/circuit-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class CircuitBreakerTest {
+
+    @Autowired
+    private CircuitTestScriptRepository repo;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Before
+    public void resetCounters() {
+        EVALUATIONS.set(0);
+        scriptRepositoryFactoryBean.getMetricsRegistry().reset();
+    }
+
+    @Test
+    public void testOpensAndClosesAfterProbe() throws Exception {
+        assertEquals("ok", repo.call(false));
+        callFailing(true);
+        assertEquals("ok", repo.call(false));
+        callFailing(true);
+        assertEquals(4, EVALUATIONS.get());
+
+        assertTrue(callFailing(false) instanceof CircuitBreakerOpenException);
+        assertEquals(4, EVALUATIONS.get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(CircuitTestScriptRepository.class.getMethod("call", Boolean.class));
+        assertEquals(5, snapshot.getInvocations());
+        assertEquals(3, snapshot.getFailures());
+        assertEquals(1, snapshot.getShortCircuitedCalls());
+
+        Thread.sleep(250L);
+        assertEquals("ok", repo.call(false));
+        assertEquals("ok", repo.call(false));
+        assertEquals(6, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testFailedProbeReopens() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(getAsyncError(true) instanceof IllegalStateException);
+        }
+        //Outcome is recorded when the future completes, it may happen right after the caller gets the error
+        Thread.sleep(100L);
+        assertTrue(getAsyncError(false) instanceof CircuitBreakerOpenException);
+
+        Thread.sleep(250L);
+        assertTrue(getAsyncError(true) instanceof IllegalStateException);
+        Thread.sleep(100L);
+        assertTrue(getAsyncError(false) instanceof CircuitBreakerOpenException);
+        assertEquals(5, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testDefaultMethodWhenOpen() throws NoSuchMethodException {
+        for (int i = 0; i < 4; i++) {
+            try {
+                repo.callWithDefault(true);
+                fail("Script must fail");
+            } catch (ScriptEvaluationException e) {
+                assertTrue(ExceptionUtils.indexOfThrowable(e, IllegalStateException.class) >= 0);
+            }
+        }
+        assertEquals(CircuitTestScriptRepository.FALLBACK, repo.callWithDefault(false));
+        assertEquals(4, EVALUATIONS.get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(CircuitTestScriptRepository.class.getMethod("callWithDefault", Boolean.class));
+        assertEquals(1, snapshot.getShortCircuitedCalls());
+        assertEquals(1, snapshot.getDefaultMethodCalls());
+        assertEquals(1, snapshot.getSuccesses());
+    }
+
+    @Test
+    public void testWrappedResultWhenOpen() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(EvaluationStatus.FAILURE, repo.callWrapped(true).getStatus());
+        }
+        ScriptResult<String> result = repo.callWrapped(false);
+        assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+        assertTrue(result.getError() instanceof CircuitBreakerOpenException);
+        assertEquals(4, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testSlowCallsOpen() {
+        repo.sleep(80L);
+        repo.sleep(80L);
+        try {
+            repo.sleep(0L);
+            fail("Circuit breaker must be open");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        }
+        assertEquals(2, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testXmlMapping() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                repo.callXml(true);
+                fail("Script must fail");
+            } catch (ScriptEvaluationException e) {
+                assertTrue(ExceptionUtils.indexOfThrowable(e, IllegalStateException.class) >= 0);
+            }
+        }
+        try {
+            repo.callXml(false);
+            fail("Circuit breaker must be open");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        }
+        assertEquals(2, EVALUATIONS.get());
+    }
+
+    private Throwable callFailing(Boolean fail) {
+        try {
+            repo.call(fail);
+            fail("Invocation must fail");
+            return null;
+        } catch (ScriptEvaluationException e) {
+            return ExceptionUtils.getRootCause(e);
+        }
+    }
+
+    private Throwable getAsyncError(Boolean fail) throws InterruptedException {
+        try {
+            repo.callAsync(fail).get();
+            fail("Invocation must fail");
+            return null;
+        } catch (ExecutionException e) {
+            return ExceptionUtils.getRootCause(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.haulmont.scripting.core.test.circuit;
+
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provider that keeps scripts in memory. Scripts count their evaluations in {@link #EVALUATIONS}
+ * and fail when their {@code fail} parameter is true.
+ */
+public class CircuitTestScriptProvider implements ScriptProvider {
+
+    public static final AtomicInteger EVALUATIONS = new AtomicInteger();
+
+    private static final String COUNT = CircuitTestScriptProvider.class.getName() + ".EVALUATIONS.incrementAndGet(); ";
+
+    private static final String FAIL_OR_ECHO = "if (fail) { throw new IllegalStateException('Backend is down') }; return 'ok'";
+
+    private final Map<String, ScriptSource> scripts = new ConcurrentHashMap<>();
+
+    public CircuitTestScriptProvider() {
+        setScript("call", FAIL_OR_ECHO);
+        setScript("callWithDefault", FAIL_OR_ECHO);
+        setScript("callWrapped", FAIL_OR_ECHO);
+        setScript("callAsync", FAIL_OR_ECHO);
+        setScript("callXml", FAIL_OR_ECHO);
+        setScript("sleep", "Thread.sleep(millis); return millis");
+    }
+
+    @Override
+    public ScriptSource getScript(Method method) {
+        ScriptSource script = scripts.get(method.getName());
+        if (script == null) {
+            throw new ScriptNotFoundException(String.format("No script for %s", method.getName()));
+        }
+        return script;
+    }
+
+    public void setScript(String methodName, String text) {
+        scripts.put(methodName, new StaticScriptSource(COUNT + text, methodName));
+    }
+}
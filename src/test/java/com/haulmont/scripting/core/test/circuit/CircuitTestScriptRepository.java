@@ -0,0 +1,36 @@
+package com.haulmont.scripting.core.test.circuit;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository
+public interface CircuitTestScriptRepository {
+
+    String FALLBACK = "fallback";
+
+    @ScriptMethod(providerBeanName = "circuitProvider", circuitBreakerWindow = 4, circuitBreakerOpenDuration = 200L)
+    String call(@ScriptParam("fail") Boolean fail);
+
+    @ScriptMethod(providerBeanName = "circuitProvider", circuitBreakerWindow = 4, circuitBreakerOpenDuration = 200L)
+    default String callWithDefault(@ScriptParam("fail") Boolean fail) {
+        return FALLBACK;
+    }
+
+    @ScriptMethod(providerBeanName = "circuitProvider", circuitBreakerWindow = 4, circuitBreakerOpenDuration = 200L)
+    ScriptResult<String> callWrapped(@ScriptParam("fail") Boolean fail);
+
+    @ScriptMethod(providerBeanName = "circuitProvider", circuitBreakerWindow = 4, circuitBreakerOpenDuration = 200L)
+    CompletableFuture<String> callAsync(@ScriptParam("fail") Boolean fail);
+
+    @CircuitBreakerScript
+    String callXml(@ScriptParam("fail") Boolean fail);
+
+    @ScriptMethod(providerBeanName = "circuitProvider", circuitBreakerWindow = 2, circuitBreakerOpenDuration = 200L,
+            circuitBreakerSlowCallDuration = 50L)
+    Long sleep(@ScriptParam("millis") Long millis);
+
+}
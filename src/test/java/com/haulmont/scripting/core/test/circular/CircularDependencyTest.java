@@ -0,0 +1,27 @@
+package com.haulmont.scripting.core.test.circular;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/circular/circular-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class CircularDependencyTest {
+
+    @Autowired
+    private CircularTestScriptRepository repo;
+
+    @Autowired
+    private CircularTestScriptProvider provider;
+
+    @Test
+    public void testProviderDependsOnRepository() {
+        assertSame(repo, provider.getRepository());
+        assertEquals("Hello, Alice", repo.greet("Alice"));
+    }
+}
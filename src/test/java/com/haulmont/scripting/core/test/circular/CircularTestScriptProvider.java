@@ -0,0 +1,30 @@
+package com.haulmont.scripting.core.test.circular;
+
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.lang.reflect.Method;
+
+/**
+ * Provider that depends on the repository it provides scripts for.
+ */
+public class CircularTestScriptProvider implements ScriptProvider {
+
+    private CircularTestScriptRepository repository;
+
+    @Override
+    public ScriptSource getScript(Method method) {
+        return new StaticScriptSource("return 'Hello, ' + name", method.getName());
+    }
+
+    public CircularTestScriptRepository getRepository() {
+        return repository;
+    }
+
+    @Autowired
+    public void setRepository(CircularTestScriptRepository repository) {
+        this.repository = repository;
+    }
+}
@@ -0,0 +1,13 @@
+package com.haulmont.scripting.core.test.circular;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository
+public interface CircularTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "circularProvider")
+    String greet(@ScriptParam("name") String name);
+
+}
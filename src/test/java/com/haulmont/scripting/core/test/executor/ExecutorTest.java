@@ -0,0 +1,44 @@
+package com.haulmont.scripting.core.test.executor;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/executor/executor-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ExecutorTest {
+
+    @Autowired
+    private ExecutorTestScriptRepository repo;
+
+    @Test
+    public void testRepositoryThreadPool() {
+        String threadName = repo.getThreadName();
+        assertTrue(threadName, threadName.startsWith("ExecutorTestScriptRepository-"));
+    }
+
+    @Test
+    public void testExecutorBean() {
+        String threadName = repo.getExecutorBeanThreadName();
+        assertTrue(threadName, threadName.startsWith("testScriptExecutor-"));
+    }
+
+    @Test
+    public void testCallerThreadExecution() {
+        String callerThreadName = Thread.currentThread().getName();
+        assertEquals(callerThreadName, repo.getCallerThreadName());
+        assertEquals(callerThreadName, repo.getForcedCallerThreadName());
+    }
+
+    @Test
+    public void testForcedExecutorExecution() {
+        String threadName = repo.getForcedExecutorThreadName();
+        assertTrue(threadName, threadName.startsWith("ExecutorTestScriptRepository-"));
+    }
+
+}
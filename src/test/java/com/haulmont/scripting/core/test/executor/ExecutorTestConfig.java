@@ -0,0 +1,19 @@
+package com.haulmont.scripting.core.test.executor;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.executor"})
+public class ExecutorTestConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService testScriptExecutor() {
+        return Executors.newSingleThreadExecutor(new CustomizableThreadFactory("testScriptExecutor-"));
+    }
+}
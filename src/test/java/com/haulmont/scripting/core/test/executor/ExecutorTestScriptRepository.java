@@ -0,0 +1,26 @@
+package com.haulmont.scripting.core.test.executor;
+
+import com.haulmont.scripting.repository.ExecutionMode;
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository(corePoolSize = 1, maxPoolSize = 1, queueCapacity = 1)
+public interface ExecutorTestScriptRepository {
+
+    @GroovyScript(timeout = 5_000L)
+    String getThreadName();
+
+    @ScriptMethod(timeout = 5_000L, executorBeanName = "testScriptExecutor")
+    String getExecutorBeanThreadName();
+
+    @GroovyScript
+    String getCallerThreadName();
+
+    @ScriptMethod(timeout = 5_000L, executionMode = ExecutionMode.CALLER_THREAD)
+    String getForcedCallerThreadName();
+
+    @ScriptMethod(executionMode = ExecutionMode.EXECUTOR)
+    String getForcedExecutorThreadName();
+
+}
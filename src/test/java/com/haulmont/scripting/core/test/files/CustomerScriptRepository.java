@@ -22,9 +22,18 @@ public interface CustomerScriptRepository {
         return "NewCustomer";
     }
 
+    @ScriptMethod
+    default String getDefaultGreeting(@ScriptParam("name") String name) {
+        return sayHello() + " " + name;
+    }
+
     @ScriptMethod
     String getDefaultError();
 
+    default String getCustomerLabel(String name) {
+        return sayHello() + " " + name;
+    }
+
     @GroovyScript
     String sayHello();
 
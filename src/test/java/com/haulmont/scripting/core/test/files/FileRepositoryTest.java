@@ -5,6 +5,7 @@ import ch.qos.logback.core.util.StatusPrinter;
 import com.haulmont.scripting.repository.config.AnnotationConfig;
 import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
 import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.metrics.MethodMetricsSnapshot;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.junit.After;
@@ -14,19 +15,28 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.text.ParseException;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -43,6 +53,9 @@ public class FileRepositoryTest {
     @Autowired
     private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
 
+    @Autowired
+    private ApplicationContext context;
+
     @Before
     public void setUp() throws Exception {
         LoggerContext lc = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -60,6 +73,17 @@ public class FileRepositoryTest {
         assertTrue(s.contains(newName));
     }
 
+    @Test
+    public void testRepeatedScriptInvocation() {
+        for (int i = 0; i < 3; i++) {
+            UUID customerId = UUID.randomUUID();
+            String newName = RandomStringUtils.randomAlphabetic(8);
+            String s = repo.renameCustomer(customerId, newName);
+            assertTrue(s.contains(customerId.toString()));
+            assertTrue(s.contains(newName));
+        }
+    }
+
     @Test
     public void testCreateObject() throws ParseException {
         String newName = RandomStringUtils.randomAlphabetic(8);
@@ -77,10 +101,77 @@ public class FileRepositoryTest {
     @Test
     public void testScriptMetadata() {
         Map<Method, AnnotationConfig> scripsMetadata = scriptRepositoryFactoryBean.getMethodInvocationsInfo();
-        assertEquals(6, scripsMetadata.size());
+        assertEquals(7, scripsMetadata.size());
         List<String> methods = scripsMetadata.keySet().stream().map(Method::getName).collect(Collectors.toList());
         assertTrue(methods.containsAll(
-                Arrays.asList("renameCustomer", "createCustomer", "getDefaultName", "getDefaultError", "sayHello", "printData")));
+                Arrays.asList("renameCustomer", "createCustomer", "getDefaultName", "getDefaultGreeting", "getDefaultError",
+                        "sayHello", "printData")));
+    }
+
+    @Test
+    public void testMethodMetrics() throws NoSuchMethodException {
+        Method sayHello = CustomerScriptRepository.class.getMethod("sayHello");
+        Method getDefaultName = CustomerScriptRepository.class.getMethod("getDefaultName");
+        Method getDefaultError = CustomerScriptRepository.class.getMethod("getDefaultError");
+        assertTrue(scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots().keySet()
+                .containsAll(scriptRepositoryFactoryBean.getMethodInvocationsInfo().keySet()));
+
+        scriptRepositoryFactoryBean.getMetricsRegistry().reset();
+        for (int i = 0; i < 5; i++) {
+            repo.sayHello();
+        }
+        repo.getDefaultName();
+        try {
+            repo.getDefaultError();
+            fail("Method without script must fail");
+        } catch (ScriptEvaluationException ignored) {
+        }
+
+        Map<Method, MethodMetricsSnapshot> snapshots = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots();
+        MethodMetricsSnapshot hello = snapshots.get(sayHello);
+        assertEquals(5, hello.getInvocations());
+        assertEquals(5, hello.getSuccesses());
+        assertEquals(0, hello.getFailures());
+        assertTrue(hello.getP50LatencyNanos() > 0);
+        assertTrue(hello.getP50LatencyNanos() <= hello.getP99LatencyNanos());
+        assertTrue(hello.getP99LatencyNanos() <= hello.getMaxLatencyNanos());
+
+        MethodMetricsSnapshot defaultName = snapshots.get(getDefaultName);
+        assertEquals(1, defaultName.getSuccesses());
+        assertEquals(1, defaultName.getDefaultMethodCalls());
+
+        MethodMetricsSnapshot error = snapshots.get(getDefaultError);
+        assertEquals(1, error.getInvocations());
+        assertEquals(1, error.getFailures());
+        assertEquals(0, error.getTimeouts());
+    }
+
+    @Test
+    public void testMetricsMBean() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> names = mBeanServer.queryNames(
+                new ObjectName("com.haulmont.scripting:type=ScriptRepositoryMetrics,*"), null);
+        assertFalse(names.isEmpty());
+
+        ObjectName objectName = new ObjectName("com.haulmont.scripting:type=ScriptRepositoryMetrics,context="
+                + ObjectName.quote(context.getId()));
+        String methodName = scriptRepositoryFactoryBean.getMetricsRegistry()
+                .getMetrics(CustomerScriptRepository.class.getMethod("sayHello")).getName();
+        CompositeData before = getMethodMetrics(mBeanServer, objectName, methodName);
+        for (int i = 0; i < 3; i++) {
+            repo.sayHello();
+        }
+        CompositeData after = getMethodMetrics(mBeanServer, objectName, methodName);
+        assertEquals(methodName, after.get("name"));
+        assertEquals(3L, (Long) after.get("invocations") - (before != null ? (Long) before.get("invocations") : 0L));
+        assertEquals(3L, (Long) after.get("successes") - (before != null ? (Long) before.get("successes") : 0L));
+    }
+
+    private CompositeData getMethodMetrics(MBeanServer mBeanServer, ObjectName objectName, String methodName)
+            throws JMException {
+        TabularData methodMetrics = (TabularData) mBeanServer.getAttribute(objectName, "MethodMetrics");
+        CompositeData row = methodMetrics.get(new Object[]{methodName});
+        return row != null ? (CompositeData) row.get("value") : null;
     }
 
     @Test
@@ -89,6 +180,18 @@ public class FileRepositoryTest {
         assertEquals("NewCustomer", defaultName);
     }
 
+    @Test
+    public void testRepeatedDefaultMethodExecution() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals("NewCustomer", repo.getDefaultName());
+        }
+    }
+
+    @Test
+    public void testDefaultMethodCallsScriptedMethod() {
+        assertEquals("Hello! Customer", repo.getDefaultGreeting("Customer"));
+    }
+
 
     @Test(expected = ScriptEvaluationException.class)
     public void testErrorMethodExecution() {
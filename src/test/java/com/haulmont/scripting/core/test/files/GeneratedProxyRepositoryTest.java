@@ -0,0 +1,92 @@
+package com.haulmont.scripting.core.test.files;
+
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/files/files-test-spring.xml"})
+@TestPropertySource(properties = "script.repository.proxy.mode=CGLIB")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class GeneratedProxyRepositoryTest {
+
+    @Autowired
+    private CustomerScriptRepository repo;
+
+    @Test
+    public void testGeneratedProxyClass() {
+        assertFalse(Proxy.isProxyClass(repo.getClass()));
+        assertTrue(repo instanceof CustomerScriptRepository);
+    }
+
+    @Test
+    public void testScriptedMethods() {
+        UUID customerId = UUID.randomUUID();
+        String result = repo.renameCustomer(customerId, "Alice");
+        assertTrue(result.contains(customerId.toString()));
+        assertEquals("Hello!", repo.sayHello());
+        repo.printData(null);
+    }
+
+    @Test
+    public void testDefaultMethods() {
+        assertEquals("NewCustomer", repo.getDefaultName());
+        assertEquals("Hello! Customer", repo.getDefaultGreeting("Customer"));
+    }
+
+    @Test
+    public void testErrorMethodExecution() {
+        try {
+            repo.getDefaultError();
+            fail("Non-default method without an underlying script must throw an error");
+        } catch (ScriptEvaluationException e) {
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void testNotScriptedDefaultMethod() {
+        assertEquals("Hello! Customer", repo.getCustomerLabel("Customer"));
+    }
+
+    @Test
+    public void testObjectMethods() {
+        assertObjectMethods(repo);
+    }
+
+    @Test
+    public void testSameObjectMethodsForJdkProxy() {
+        try (ClassPathXmlApplicationContext context =
+                     new ClassPathXmlApplicationContext("com/haulmont/scripting/core/test/files/files-test-spring.xml")) {
+            CustomerScriptRepository jdkRepo = context.getBean(CustomerScriptRepository.class);
+            assertTrue(Proxy.isProxyClass(jdkRepo.getClass()));
+            assertObjectMethods(jdkRepo);
+            assertNotEquals(repo, jdkRepo);
+            assertNotEquals(jdkRepo, repo);
+            assertEquals("Hello! Customer", jdkRepo.getCustomerLabel("Customer"));
+        }
+    }
+
+    @SuppressWarnings("EqualsWithItself")
+    private static void assertObjectMethods(CustomerScriptRepository repository) {
+        assertTrue(repository.equals(repository));
+        assertFalse(repository.equals(null));
+        assertFalse(repository.equals(new Object()));
+        assertEquals(System.identityHashCode(repository), repository.hashCode());
+        assertTrue(repository.toString().startsWith(CustomerScriptRepository.class.getName() + "@"));
+    }
+}
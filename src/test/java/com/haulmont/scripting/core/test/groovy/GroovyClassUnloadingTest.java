@@ -0,0 +1,57 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.repository.evaluator.GroovyScriptNativeEvaluator;
+import com.haulmont.scripting.repository.evaluator.GroovyScriptStaticEvaluator;
+import org.junit.Test;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that script classes evicted from evaluator caches are not kept by class loaders and can be unloaded.
+ */
+public class GroovyClassUnloadingTest {
+
+    private static final String RETURN_CLASS = "return this.getClass()";
+
+    @Test
+    public void testEvictedNativeScriptUnloaded() throws InterruptedException {
+        GroovyScriptNativeEvaluator evaluator = new GroovyScriptNativeEvaluator();
+        evaluator.setCacheSize(1);
+        WeakReference<Class<?>> evicted = new WeakReference<>(
+                (Class<?>) evaluator.evaluate(new StaticScriptSource(RETURN_CLASS + " //first")));
+        assertNotNull(evaluator.evaluate(new StaticScriptSource(RETURN_CLASS + " //second")));
+        awaitCollected(evicted);
+        assertNull("Evicted script class must be unloaded", evicted.get());
+    }
+
+    @Test
+    public void testEvictedSignatureScriptsUnloaded() throws InterruptedException {
+        GroovyScriptStaticEvaluator evaluator = new GroovyScriptStaticEvaluator();
+        evaluator.setSignatureCacheSize(1);
+        StaticScriptSource script = new StaticScriptSource(RETURN_CLASS);
+        WeakReference<Class<?>> evicted = new WeakReference<>(
+                (Class<?>) evaluator.evaluate(script, Collections.singletonMap("first", 1)));
+        assertNotNull(evaluator.evaluate(script, Collections.singletonMap("second", 2)));
+        awaitCollected(evicted);
+        assertNull("Script class of evicted signature must be unloaded", evicted.get());
+    }
+
+    static void awaitCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            List<byte[]> garbage = new ArrayList<>();
+            for (int j = 0; j < 16; j++) {
+                garbage.add(new byte[1024 * 1024]);
+            }
+            garbage.clear();
+            System.gc();
+            Thread.sleep(20L);
+        }
+    }
+}
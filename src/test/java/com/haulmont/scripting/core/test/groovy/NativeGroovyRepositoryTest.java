@@ -0,0 +1,58 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.core.test.files.Customer;
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/groovy/groovy-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class NativeGroovyRepositoryTest {
+
+    @Autowired
+    private NativeGroovyScriptRepository repo;
+
+    @Test
+    public void testRepeatedCalculation() {
+        for (int i = 1; i <= 3; i++) {
+            BigDecimal amount = BigDecimal.valueOf(100 * i);
+            assertEquals(0, amount.multiply(BigDecimal.valueOf(0.13)).compareTo(repo.calculateTax(amount)));
+        }
+    }
+
+    @Test
+    public void testCreateObject() throws ParseException {
+        String newName = RandomStringUtils.randomAlphabetic(8);
+        Date birthDate = DateUtils.parseDate("1988-12-16", "yyyy-MM-dd");
+        ScriptResult<Customer> result = repo.createCustomer(newName, birthDate);
+        assertEquals(EvaluationStatus.SUCCESS, result.getStatus());
+        Customer c = result.getValue();
+        assertEquals(newName, c.getName());
+        assertEquals(birthDate, c.getBirthDate());
+        assertNotNull(c.getId());
+    }
+
+    @Test
+    public void testVariablesChangedByScript() {
+        for (int i = 0; i < 2; i++) {
+            List<Object> result = repo.rebindVariables("first", "second");
+            assertEquals(Arrays.asList("FIRST!", false, Arrays.asList("first", "suffix")), result);
+        }
+    }
+
+}
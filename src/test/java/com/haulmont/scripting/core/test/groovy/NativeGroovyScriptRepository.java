@@ -0,0 +1,24 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.core.test.files.Customer;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+@ScriptRepository
+public interface NativeGroovyScriptRepository {
+
+    @NativeGroovyScript
+    BigDecimal calculateTax(@ScriptParam("amount") BigDecimal amount);
+
+    @NativeGroovyScript
+    ScriptResult<Customer> createCustomer(@ScriptParam("name") String name, @ScriptParam("birthDate") Date birthDate);
+
+    @NativeGroovyScript
+    List<Object> rebindVariables(@ScriptParam("first") String first, @ScriptParam("second") String second);
+
+}
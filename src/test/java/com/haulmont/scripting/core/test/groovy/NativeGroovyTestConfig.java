@@ -0,0 +1,9 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.groovy"})
+public class NativeGroovyTestConfig {
+}
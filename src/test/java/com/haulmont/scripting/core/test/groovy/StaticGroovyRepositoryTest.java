@@ -0,0 +1,88 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.factory.WarmUpSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/groovy/groovy-test-spring.xml"})
+@TestPropertySource(properties = "script.repository.warmup.enabled=true")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class StaticGroovyRepositoryTest {
+
+    @Autowired
+    private StaticGroovyScriptRepository repo;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Test
+    public void testTypedParameters() {
+        BigDecimal amount = BigDecimal.valueOf(200);
+        assertEquals(0, amount.multiply(BigDecimal.valueOf(0.13)).compareTo(repo.calculateTax(amount)));
+        assertEquals(5, repo.sum(2, 3));
+        assertEquals("Hello, ALICE", repo.greet("Alice").getValue());
+    }
+
+    @Test
+    public void testVoidMethod() {
+        List<String> entries = new ArrayList<>();
+        repo.addEntry(entries, "first");
+        assertEquals(Collections.singletonList("first"), entries);
+    }
+
+    @Test
+    public void testWrongResultType() {
+        try {
+            repo.returnWrongType(1);
+            fail("Script returning a value of wrong type must not be compiled");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(hasCause(e, ScriptCompilationException.class));
+        }
+    }
+
+    @Test
+    public void testUnknownVariable() {
+        try {
+            repo.useUnknownVariable();
+            fail("Script using undeclared variable must not be compiled");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(hasCause(e, ScriptCompilationException.class));
+        }
+    }
+
+    @Test
+    public void testCompilationErrorsOnWarmUp() throws NoSuchMethodException {
+        WarmUpSummary summary = scriptRepositoryFactoryBean.getWarmUpSummary();
+        assertTrue(summary.getFailures().containsKey(
+                StaticGroovyScriptRepository.class.getMethod("returnWrongType", int.class)));
+        assertTrue(summary.getFailures().containsKey(
+                StaticGroovyScriptRepository.class.getMethod("useUnknownVariable")));
+        assertTrue(summary.getFailures().keySet().stream()
+                .noneMatch(method -> method.getName().equals("calculateTax") || method.getName().equals("sum")));
+    }
+
+    private boolean hasCause(Throwable e, Class<? extends Throwable> causeClass) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (causeClass.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
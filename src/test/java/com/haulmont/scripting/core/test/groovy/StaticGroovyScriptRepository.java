@@ -0,0 +1,30 @@
+package com.haulmont.scripting.core.test.groovy;
+
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@ScriptRepository
+public interface StaticGroovyScriptRepository {
+
+    @StaticGroovyScript
+    BigDecimal calculateTax(@ScriptParam("amount") BigDecimal amount);
+
+    @StaticGroovyScript
+    int sum(@ScriptParam("a") int a, @ScriptParam("b") int b);
+
+    @StaticGroovyScript
+    ScriptResult<String> greet(@ScriptParam("name") String name);
+
+    @StaticGroovyScript
+    void addEntry(@ScriptParam("entries") List<String> entries, @ScriptParam("entry") String entry);
+
+    @StaticGroovyScript
+    Integer returnWrongType(@ScriptParam("a") int a);
+
+    @StaticGroovyScript
+    Integer useUnknownVariable();
+}
@@ -0,0 +1,27 @@
+package com.haulmont.scripting.core.test.index;
+
+import com.haulmont.scripting.core.test.memoize.MemoizeTestScriptRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/memoize/memoize-test-spring.xml"})
+@TestPropertySource(properties = {"script.repository.index.merge.scan=true"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ScriptRepositoryIndexMergeTest {
+
+    @Autowired
+    private ApplicationContext ctx;
+
+    @Test
+    public void testIndexedRepositoryRegisteredOnce() {
+        assertEquals(1, ctx.getBeanNamesForType(MemoizeTestScriptRepository.class).length);
+        assertEquals(Integer.valueOf(3), ctx.getBean(MemoizeTestScriptRepository.class).add(1, 2));
+    }
+}
@@ -0,0 +1,92 @@
+package com.haulmont.scripting.core.test.index;
+
+import com.haulmont.scripting.core.test.files.CustomerScriptRepository;
+import com.haulmont.scripting.repository.index.ScriptRepositoryIndex;
+import com.haulmont.scripting.repository.index.ScriptRepositoryIndexProcessor;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScriptRepositoryIndexTest {
+
+    @Test
+    public void testProcessorGeneratesIndex() throws IOException {
+        Path sourceDir = Files.createTempDirectory("index-test-src");
+        Path outputDir = Files.createTempDirectory("index-test-classes");
+        Path packageDir = Files.createDirectories(sourceDir.resolve("com/example"));
+        Path repository = Files.write(packageDir.resolve("OrderRepository.java"), Arrays.asList(
+                "package com.example;",
+                "@com.haulmont.scripting.repository.ScriptRepository",
+                "public interface OrderRepository {",
+                "    @com.haulmont.scripting.repository.ScriptRepository",
+                "    interface Nested {}",
+                "}"), StandardCharsets.UTF_8);
+        Path plainInterface = Files.write(packageDir.resolve("PlainInterface.java"), Collections.singletonList(
+                "package com.example; public interface PlainInterface {}"), StandardCharsets.UTF_8);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", outputDir.toString(), "-proc:only"),
+                    null, fileManager.getJavaFileObjects(repository.toFile(), plainInterface.toFile()));
+            task.setProcessors(Collections.singletonList(new ScriptRepositoryIndexProcessor()));
+            assertTrue(task.call());
+        }
+
+        List<String> entries = Files.readAllLines(outputDir.resolve(ScriptRepositoryIndex.INDEX_LOCATION), StandardCharsets.UTF_8)
+                .stream()
+                .filter(line -> !line.startsWith("#"))
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("com.example.OrderRepository", "com.example.OrderRepository$Nested"), entries);
+    }
+
+    @Test
+    public void testIndexLoading() throws IOException {
+        Path dir = Files.createTempDirectory("index-test");
+        Path index = dir.resolve(ScriptRepositoryIndex.INDEX_LOCATION);
+        Files.createDirectories(index.getParent());
+        Files.write(index, Arrays.asList("# comment", "com.example.OrderRepository", "com.example.sales.SalesRepository",
+                "com.examples.OtherRepository"), StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, null)) {
+            ScriptRepositoryIndex repositoryIndex = ScriptRepositoryIndex.load(classLoader);
+            assertNotNull(repositoryIndex);
+            assertEquals(3, repositoryIndex.getRepositoryClassNames().size());
+            assertEquals(Arrays.asList("com.example.OrderRepository", "com.example.sales.SalesRepository"),
+                    Arrays.asList(repositoryIndex.getRepositoryClassNames("com.example").toArray()));
+            assertTrue(repositoryIndex.getRepositoryClassNames("com.other").isEmpty());
+        }
+    }
+
+    @Test
+    public void testNoIndex() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{new File("nonexistent").toURI().toURL()}, null)) {
+            assertNull(ScriptRepositoryIndex.load(classLoader));
+        }
+    }
+
+    @Test
+    public void testTestRepositoriesIndexed() {
+        ScriptRepositoryIndex index = ScriptRepositoryIndex.load(getClass().getClassLoader());
+        assertNotNull(index);
+        assertTrue(index.getRepositoryClassNames().contains(CustomerScriptRepository.class.getName()));
+    }
+}
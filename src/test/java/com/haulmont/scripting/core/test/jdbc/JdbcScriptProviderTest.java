@@ -0,0 +1,114 @@
+package com.haulmont.scripting.core.test.jdbc;
+
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.provider.JdbcScriptProvider;
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/jdbc/jdbc-test-spring.xml"})
+@TestPropertySource(properties = {"script.source.jdbc.check.interval=100", "script.repository.missing.script.ttl=0"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class JdbcScriptProviderTest {
+
+    @Autowired
+    private JdbcTestScriptRepository repo;
+
+    @Autowired
+    private JdbcScriptProvider jdbcScriptProvider;
+
+    @Autowired
+    private JDBCDataSource jdbcTestDataSource;
+
+    @After
+    public void tearDown() throws Exception {
+        execute("delete from persistent_script where name = 'JdbcTestScriptRepository.getNewMessage'");
+        execute("update persistent_script set source_text = 'return \"first\"', version = 1 " +
+                "where name = 'JdbcTestScriptRepository.getMessage'");
+        jdbcScriptProvider.refresh();
+    }
+
+    @Test
+    public void testScriptsLoadedAtStartup() throws Exception {
+        assertEquals(0, new BigDecimal("13.00").compareTo(repo.calculateTax(BigDecimal.valueOf(100))));
+        Method method = JdbcTestScriptRepository.class.getMethod("calculateTax", BigDecimal.class);
+        ScriptSource source = jdbcScriptProvider.getScript(method);
+        assertSame(source, jdbcScriptProvider.getScript(method));
+    }
+
+    @Test
+    public void testChangedScriptReloaded() throws Exception {
+        Method method = JdbcTestScriptRepository.class.getMethod("getMessage");
+        ScriptSource first = jdbcScriptProvider.getScript(method);
+        assertEquals("first", repo.getMessage());
+
+        execute("update persistent_script set source_text = 'return \"second\"', version = 2 " +
+                "where name = 'JdbcTestScriptRepository.getMessage'");
+        jdbcScriptProvider.refresh();
+        assertNotSame(first, jdbcScriptProvider.getScript(method));
+        assertEquals("second", repo.getMessage());
+    }
+
+    @Test
+    public void testUnchangedVersionNotReloaded() throws Exception {
+        Method method = JdbcTestScriptRepository.class.getMethod("getMessage");
+        ScriptSource first = jdbcScriptProvider.getScript(method);
+        execute("update persistent_script set source_text = 'return \"second\"' " +
+                "where name = 'JdbcTestScriptRepository.getMessage'");
+        jdbcScriptProvider.refresh();
+        assertSame(first, jdbcScriptProvider.getScript(method));
+    }
+
+    @Test
+    public void testAddedAndRemovedScripts() throws Exception {
+        Method method = JdbcTestScriptRepository.class.getMethod("getNewMessage");
+        try {
+            jdbcScriptProvider.getScript(method);
+            fail("Script is not in the table yet");
+        } catch (ScriptNotFoundException ignored) {
+        }
+
+        execute("insert into persistent_script values('JdbcTestScriptRepository.getNewMessage', 'return \"new\"', 1)");
+        String message = null;
+        for (int i = 0; i < 50 && message == null; i++) {
+            Thread.sleep(100L);
+            try {
+                message = repo.getNewMessage();
+            } catch (ScriptEvaluationException ignored) {
+            }
+        }
+        assertEquals("new", message);
+
+        execute("delete from persistent_script where name = 'JdbcTestScriptRepository.getNewMessage'");
+        jdbcScriptProvider.refresh();
+        try {
+            jdbcScriptProvider.getScript(method);
+            fail("Script is removed from the table");
+        } catch (ScriptNotFoundException ignored) {
+        }
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Connection conn = jdbcTestDataSource.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+}
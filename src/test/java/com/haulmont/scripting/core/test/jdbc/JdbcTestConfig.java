@@ -0,0 +1,37 @@
+package com.haulmont.scripting.core.test.jdbc;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import com.haulmont.scripting.repository.provider.JdbcScriptProvider;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.jdbc"})
+public class JdbcTestConfig {
+
+    @Bean
+    public JDBCDataSource jdbcTestDataSource() throws SQLException {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setURL("jdbc:hsqldb:mem:jdbcProviderTestDb");
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+        try (Connection conn = dataSource.getConnection();
+             Statement st = conn.createStatement()) {
+            st.execute("create table persistent_script (name varchar(255) not null primary key, " +
+                    "source_text varchar(1000) not null, version integer not null)");
+            st.execute("insert into persistent_script values('JdbcTestScriptRepository.calculateTax', 'return amount * 0.13', 1)");
+            st.execute("insert into persistent_script values('JdbcTestScriptRepository.getMessage', 'return \"first\"', 1)");
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public JdbcScriptProvider jdbcScriptProvider() throws SQLException {
+        return new JdbcScriptProvider(jdbcTestDataSource());
+    }
+}
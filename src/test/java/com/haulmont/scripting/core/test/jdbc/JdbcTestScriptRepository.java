@@ -0,0 +1,21 @@
+package com.haulmont.scripting.core.test.jdbc;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+import java.math.BigDecimal;
+
+@ScriptRepository
+public interface JdbcTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "jdbcScriptProvider")
+    BigDecimal calculateTax(@ScriptParam("amount") BigDecimal amount);
+
+    @ScriptMethod(providerBeanName = "jdbcScriptProvider")
+    String getMessage();
+
+    @ScriptMethod(providerBeanName = "jdbcScriptProvider")
+    String getNewMessage();
+
+}
@@ -12,6 +12,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertTrue;
 
 @ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/js/js-test-spring.xml"})
@@ -42,4 +48,21 @@ public class JsRepositoryTest {
         assertTrue(Math.abs(3.2 - result) < 0.0001);
     }
 
+    @Test
+    public void testConcurrentMath() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                double x = i;
+                results.add(executor.submit(() -> repo.simpleMath(x, 1.0)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertTrue(Math.abs(i + 1.0 - results.get(i).get()) < 0.0001);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
\ No newline at end of file
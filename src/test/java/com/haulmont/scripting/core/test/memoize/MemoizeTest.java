@@ -0,0 +1,148 @@
+package com.haulmont.scripting.core.test.memoize;
+
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptEvaluationException;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.metrics.MethodMetricsSnapshot;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static com.haulmont.scripting.core.test.memoize.MemoizeTestScriptProvider.EVALUATIONS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/memoize/memoize-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class MemoizeTest {
+
+    @Autowired
+    private MemoizeTestScriptRepository repo;
+
+    @Autowired
+    private MemoizeTestScriptProvider provider;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Before
+    public void resetCounters() {
+        EVALUATIONS.set(0);
+        scriptRepositoryFactoryBean.getMetricsRegistry().reset();
+    }
+
+    @Test
+    public void testResultMemoized() throws NoSuchMethodException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(3), repo.add(1, 2));
+        }
+        assertEquals(1, EVALUATIONS.get());
+        assertEquals(Integer.valueOf(4), repo.add(2, 2));
+        assertEquals(2, EVALUATIONS.get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(MemoizeTestScriptRepository.class.getMethod("add", Integer.class, Integer.class));
+        assertEquals(4, snapshot.getInvocations());
+        assertEquals(4, snapshot.getSuccesses());
+        assertEquals(2, snapshot.getMemoizedCalls());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        repo.add(10, 1);
+        repo.add(10, 2);
+        repo.add(10, 1);
+        repo.add(10, 3);
+        assertEquals(3, EVALUATIONS.get());
+        repo.add(10, 1);
+        assertEquals(3, EVALUATIONS.get());
+        repo.add(10, 2);
+        assertEquals(4, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testScriptChangeInvalidates() {
+        assertEquals(Integer.valueOf(5), repo.add(2, 3));
+        provider.setScript("add", "return a * b");
+        assertEquals(Integer.valueOf(6), repo.add(2, 3));
+        assertEquals(Integer.valueOf(6), repo.add(2, 3));
+        assertEquals(2, EVALUATIONS.get());
+        provider.setScript("add", "return a + b");
+    }
+
+    @Test
+    public void testNewSourceWithSameText() {
+        assertEquals(Integer.valueOf(7), repo.addRebuilt(3, 4));
+        assertEquals(Integer.valueOf(7), repo.addRebuilt(3, 4));
+        assertEquals(1, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        repo.addExpiring(1, 1);
+        repo.addExpiring(1, 1);
+        assertEquals(1, EVALUATIONS.get());
+        Thread.sleep(150L);
+        repo.addExpiring(1, 1);
+        assertEquals(2, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testWrappedResult() {
+        ScriptResult<Integer> first = repo.addWrapped(3, 4);
+        ScriptResult<Integer> second = repo.addWrapped(3, 4);
+        assertEquals(EvaluationStatus.SUCCESS, second.getStatus());
+        assertEquals(first.getValue(), second.getValue());
+        assertNull(second.getError());
+        assertEquals(1, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testAsyncResult() throws Exception {
+        assertEquals(Integer.valueOf(9), repo.addAsync(4, 5).get());
+        assertEquals(Integer.valueOf(9), repo.addAsync(4, 5).get());
+        assertEquals(1, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testXmlMapping() {
+        repo.addXml(5, 6);
+        repo.addXml(5, 6);
+        assertEquals(1, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testFailuresNotMemoizedByDefault() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                repo.divide(1, 0);
+                fail("Division by zero must fail");
+            } catch (ScriptEvaluationException e) {
+                assertTrue(ExceptionUtils.indexOfThrowable(e, ArithmeticException.class) >= 0);
+            }
+        }
+        assertEquals(2, EVALUATIONS.get());
+    }
+
+    @Test
+    public void testFailuresMemoized() throws NoSuchMethodException {
+        for (int i = 0; i < 2; i++) {
+            ScriptResult<Integer> result = repo.divideWrapped(1, 0);
+            assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+            assertTrue(ExceptionUtils.indexOfThrowable(result.getError(), ArithmeticException.class) >= 0);
+        }
+        assertEquals(1, EVALUATIONS.get());
+
+        MethodMetricsSnapshot snapshot = scriptRepositoryFactoryBean.getMetricsRegistry().getSnapshots()
+                .get(MemoizeTestScriptRepository.class.getMethod("divideWrapped", Integer.class, Integer.class));
+        assertEquals(2, snapshot.getFailures());
+        assertEquals(1, snapshot.getMemoizedCalls());
+    }
+}
@@ -0,0 +1,56 @@
+package com.haulmont.scripting.core.test.memoize;
+
+import com.haulmont.scripting.repository.provider.ScriptNotFoundException;
+import com.haulmont.scripting.repository.provider.ScriptProvider;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provider that keeps scripts in memory and returns the same source instance until the script is replaced,
+ * except for {@code addRebuilt} method which gets a new source instance on every call. Scripts count their evaluations in {@link #EVALUATIONS}.
+ */
+public class MemoizeTestScriptProvider implements ScriptProvider {
+
+    public static final AtomicInteger EVALUATIONS = new AtomicInteger();
+
+    private static final String COUNT = MemoizeTestScriptProvider.class.getName() + ".EVALUATIONS.incrementAndGet(); ";
+
+    private final Map<String, ScriptSource> scripts = new ConcurrentHashMap<>();
+
+    public MemoizeTestScriptProvider() {
+        setScript("add", "return a + b");
+        setScript("addWrapped", "return a + b");
+        setScript("addAsync", "return a + b");
+        setScript("addExpiring", "return a + b");
+        setScript("addXml", "return a + b");
+        setScript("addRebuilt", "return a + b");
+        setScript("divide", "return a.intdiv(b)");
+        setScript("divideWrapped", "return a.intdiv(b)");
+    }
+
+    @Override
+    public ScriptSource getScript(Method method) {
+        ScriptSource script = scripts.get(method.getName());
+        if (script == null) {
+            throw new ScriptNotFoundException(String.format("No script for %s", method.getName()));
+        }
+        if ("addRebuilt".equals(method.getName())) {
+            try {
+                return new StaticScriptSource(script.getScriptAsString(), method.getName());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return script;
+    }
+
+    public void setScript(String methodName, String text) {
+        scripts.put(methodName, new StaticScriptSource(COUNT + text, methodName));
+    }
+}
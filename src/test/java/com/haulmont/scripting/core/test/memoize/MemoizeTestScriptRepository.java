@@ -0,0 +1,37 @@
+package com.haulmont.scripting.core.test.memoize;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository
+public interface MemoizeTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 2)
+    Integer add(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10)
+    ScriptResult<Integer> addWrapped(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10)
+    CompletableFuture<Integer> addAsync(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10, memoizeTtl = 100L)
+    Integer addExpiring(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10)
+    Integer addRebuilt(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @MemoizedScript
+    Integer addXml(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10)
+    Integer divide(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+    @ScriptMethod(providerBeanName = "memoizeProvider", memoizeSize = 10, memoizeFailures = true)
+    ScriptResult<Integer> divideWrapped(@ScriptParam("a") Integer a, @ScriptParam("b") Integer b);
+
+}
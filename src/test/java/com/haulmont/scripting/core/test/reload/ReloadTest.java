@@ -0,0 +1,65 @@
+package com.haulmont.scripting.core.test.reload;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/reload/reload-test-spring.xml"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class ReloadTest {
+
+    private static final Path SCRIPT_FILE = ReloadTestConfig.SCRIPT_DIR.resolve("ReloadTestScriptRepository.getMessage.groovy");
+
+    private static final Path CACHED_SCRIPT_FILE = ReloadTestConfig.SCRIPT_DIR.resolve("ReloadTestScriptRepository.getCachedMessage.groovy");
+
+    @Autowired
+    private ReloadTestScriptRepository repo;
+
+    @Autowired
+    private ReloadTestScriptProvider reloadScriptProvider;
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(SCRIPT_FILE);
+        Files.deleteIfExists(CACHED_SCRIPT_FILE);
+    }
+
+    @Test
+    public void testSourceIsCached() throws Exception {
+        writeScript(CACHED_SCRIPT_FILE, "return 'cached'");
+        Method method = ReloadTestScriptRepository.class.getMethod("getCachedMessage");
+        ScriptSource source = reloadScriptProvider.getScript(method);
+        assertSame(source, reloadScriptProvider.getScript(method));
+        assertEquals("cached", repo.getCachedMessage());
+    }
+
+    @Test
+    public void testScriptReloaded() throws Exception {
+        writeScript(SCRIPT_FILE, "return 'first'");
+        assertEquals("first", repo.getMessage());
+        writeScript(SCRIPT_FILE, "return 'second'");
+        String message = repo.getMessage();
+        for (int i = 0; i < 100 && !"second".equals(message); i++) {
+            Thread.sleep(100L);
+            message = repo.getMessage();
+        }
+        assertEquals("second", message);
+    }
+
+    private void writeScript(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
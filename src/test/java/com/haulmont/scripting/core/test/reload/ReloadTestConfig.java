@@ -0,0 +1,32 @@
+package com.haulmont.scripting.core.test.reload;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.reload"})
+public class ReloadTestConfig {
+
+    static final Path SCRIPT_DIR = createScriptDir();
+
+    private static Path createScriptDir() {
+        try {
+            Path dir = Files.createTempDirectory("reload-test-scripts");
+            dir.toFile().deleteOnExit();
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Bean
+    public ReloadTestScriptProvider reloadScriptProvider() {
+        return new ReloadTestScriptProvider();
+    }
+}
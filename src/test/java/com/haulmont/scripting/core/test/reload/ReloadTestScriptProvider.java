@@ -0,0 +1,17 @@
+package com.haulmont.scripting.core.test.reload;
+
+import com.haulmont.scripting.repository.provider.AbstractResourceProvider;
+
+import java.lang.reflect.Method;
+
+/**
+ * Reads scripts from a temporary directory, so tests can change them.
+ */
+public class ReloadTestScriptProvider extends AbstractResourceProvider {
+
+    @Override
+    public String getResourcePath(Method method) {
+        return ReloadTestConfig.SCRIPT_DIR.resolve(
+                method.getDeclaringClass().getSimpleName() + "." + method.getName() + ".groovy").toUri().toString();
+    }
+}
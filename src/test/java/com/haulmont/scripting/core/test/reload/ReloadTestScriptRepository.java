@@ -0,0 +1,15 @@
+package com.haulmont.scripting.core.test.reload;
+
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository
+public interface ReloadTestScriptRepository {
+
+    @ScriptMethod(providerBeanName = "reloadScriptProvider")
+    String getMessage();
+
+    @ScriptMethod(providerBeanName = "reloadScriptProvider")
+    String getCachedMessage();
+
+}
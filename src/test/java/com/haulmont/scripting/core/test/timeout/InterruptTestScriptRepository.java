@@ -0,0 +1,21 @@
+package com.haulmont.scripting.core.test.timeout;
+
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.ScriptMethod;
+import com.haulmont.scripting.repository.ScriptRepository;
+
+@ScriptRepository(corePoolSize = 1, maxPoolSize = 1, queueCapacity = 1)
+public interface InterruptTestScriptRepository {
+
+    String PONG = "Pong";
+
+    @GroovyScript(timeout = 200L)
+    long runEndlessLoop();
+
+    @ScriptMethod(timeout = 200L, evaluatorBeanName = "groovyNativeEvaluator")
+    long runEndlessLoopNative();
+
+    @GroovyScript(timeout = 1_000L)
+    String ping();
+
+}
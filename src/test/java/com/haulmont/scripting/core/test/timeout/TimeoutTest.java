@@ -21,6 +21,9 @@ public class TimeoutTest {
     @Autowired
     private TimeoutTestScriptRepository testScriptRepository;
 
+    @Autowired
+    private InterruptTestScriptRepository interruptTestScriptRepository;
+
     @Test//Timeout 1_000L
     public void runShortJob() {
         String result = testScriptRepository.doLongJob(100L);
@@ -48,5 +51,39 @@ public class TimeoutTest {
         fail("Long-running methods must throw exception if timeout is set");
     }
 
+    @Test
+    public void runEndlessLoopInterrupted() throws InterruptedException {
+        try {
+            interruptTestScriptRepository.runEndlessLoop();
+            fail("Endless loop must be interrupted on timeout");
+        } catch (ScriptEvaluationException e) {
+            assertEquals(TimeoutException.class, e.getCause().getClass());
+        }
+        //Repository has the only thread, it must be released after interruption
+        assertEquals(InterruptTestScriptRepository.PONG, pingWhenThreadReleased());
+    }
+
+    @Test
+    public void runEndlessLoopNativeInterrupted() throws InterruptedException {
+        try {
+            interruptTestScriptRepository.runEndlessLoopNative();
+            fail("Endless loop must be interrupted on timeout");
+        } catch (ScriptEvaluationException e) {
+            assertEquals(TimeoutException.class, e.getCause().getClass());
+        }
+        assertEquals(InterruptTestScriptRepository.PONG, pingWhenThreadReleased());
+    }
+
+    private String pingWhenThreadReleased() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            try {
+                return interruptTestScriptRepository.ping();
+            } catch (ScriptEvaluationException e) {
+                Thread.sleep(100L);
+            }
+        }
+        fail("Script thread is still busy after interruption");
+        return null;
+    }
 
 }
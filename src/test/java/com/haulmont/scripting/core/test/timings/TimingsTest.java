@@ -0,0 +1,70 @@
+package com.haulmont.scripting.core.test.timings;
+
+import com.haulmont.scripting.repository.evaluator.EvaluationStatus;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.evaluator.ScriptTimings;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/timings/timings-test-spring.xml"})
+@TestPropertySource(properties = "script.repository.timings.enabled=true")
+@RunWith(SpringJUnit4ClassRunner.class)
+public class TimingsTest {
+
+    @Autowired
+    private TimingsTestScriptRepository repo;
+
+    @Test
+    public void testCallerThreadTimings() {
+        ScriptResult<String> first = repo.greet("Alice");
+        assertEquals("Hello, Alice", first.getValue());
+        ScriptTimings firstTimings = first.getTimings();
+        assertNotNull(firstTimings);
+        assertEquals(0L, firstTimings.getQueueWaitNanos());
+        assertTrue(firstTimings.getFetchNanos() > 0);
+        assertTrue(firstTimings.getEvaluationNanos() > 0);
+        assertTrue(firstTimings.isCompiled());
+
+        ScriptTimings secondTimings = repo.greet("Bob").getTimings();
+        assertFalse(secondTimings.isCompiled());
+        assertEquals(0L, secondTimings.getCompileNanos());
+    }
+
+    @Test
+    public void testPoolTimings() {
+        ScriptResult<String> result = repo.greetInPool("Alice");
+        assertEquals("Hello from pool, Alice", result.getValue());
+        ScriptTimings timings = result.getTimings();
+        assertNotNull(timings);
+        assertTrue(timings.getQueueWaitNanos() > 0);
+        assertTrue(timings.isCompiled());
+        assertTrue(timings.getCompileNanos() > 0);
+    }
+
+    @Test
+    public void testAsyncTimings() throws Exception {
+        ScriptResult<String> result = repo.greetAsync("Alice").get(5, TimeUnit.SECONDS);
+        assertEquals("Hello async, Alice", result.getValue());
+        assertNotNull(result.getTimings());
+        assertTrue(result.getTimings().getQueueWaitNanos() > 0);
+    }
+
+    @Test
+    public void testNoTimingsOnFailure() {
+        ScriptResult<String> result = repo.fail();
+        assertEquals(EvaluationStatus.FAILURE, result.getStatus());
+        assertNull(result.getTimings());
+    }
+}
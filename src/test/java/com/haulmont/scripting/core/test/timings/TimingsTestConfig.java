@@ -0,0 +1,9 @@
+package com.haulmont.scripting.core.test.timings;
+
+import com.haulmont.scripting.repository.config.EnableScriptRepositories;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableScriptRepositories(basePackages = {"com.haulmont.scripting.core.test.timings"})
+public class TimingsTestConfig {
+}
@@ -0,0 +1,24 @@
+package com.haulmont.scripting.core.test.timings;
+
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+import java.util.concurrent.CompletableFuture;
+
+@ScriptRepository
+public interface TimingsTestScriptRepository {
+
+    @GroovyScript
+    ScriptResult<String> greet(@ScriptParam("name") String name);
+
+    @GroovyScript(timeout = 5000L)
+    ScriptResult<String> greetInPool(@ScriptParam("name") String name);
+
+    @GroovyScript
+    CompletableFuture<ScriptResult<String>> greetAsync(@ScriptParam("name") String name);
+
+    @GroovyScript
+    ScriptResult<String> fail();
+}
@@ -0,0 +1,57 @@
+package com.haulmont.scripting.core.test.warmup;
+
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+import com.haulmont.scripting.repository.factory.ScriptRepositoryFactoryBean;
+import com.haulmont.scripting.repository.factory.WarmUpSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scripting.ScriptCompilationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@ContextConfiguration(locations = {"classpath:com/haulmont/scripting/core/test/warmup/warmup-test-spring.xml"})
+@TestPropertySource(properties = {"script.repository.warmup.enabled=true", "script.repository.timings.enabled=true"})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class WarmUpTest {
+
+    @Autowired
+    private WarmUpTestScriptRepository repo;
+
+    @Autowired
+    private ScriptRepositoryFactoryBean scriptRepositoryFactoryBean;
+
+    @Test
+    public void testWarmUpSummary() throws NoSuchMethodException {
+        WarmUpSummary summary = scriptRepositoryFactoryBean.getWarmUpSummary();
+        assertNotNull(summary);
+        assertEquals(2, summary.getCompiled());
+        assertEquals(2, summary.getEvaluations());
+        assertEquals(1, summary.getSkipped());
+        assertEquals(2, summary.getFailures().size());
+
+        Method broken = WarmUpTestScriptRepository.class.getMethod("broken");
+        assertTrue(summary.getFailures().get(broken) instanceof ScriptCompilationException);
+        Method multiply = WarmUpTestScriptRepository.class.getMethod("multiply", int.class, int.class);
+        assertTrue(summary.getFailures().get(multiply) instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testScriptsCompiledOnStart() {
+        ScriptResult<String> greeting = repo.greet("Alice");
+        assertEquals("Hello, Alice", greeting.getValue());
+        assertFalse(greeting.getTimings().isCompiled());
+
+        ScriptResult<Integer> sum = repo.sum(1, 2);
+        assertEquals(Integer.valueOf(3), sum.getValue());
+        assertFalse(sum.getTimings().isCompiled());
+    }
+}
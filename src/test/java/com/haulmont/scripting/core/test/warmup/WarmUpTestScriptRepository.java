@@ -0,0 +1,30 @@
+package com.haulmont.scripting.core.test.warmup;
+
+import com.haulmont.scripting.repository.GroovyScript;
+import com.haulmont.scripting.repository.ScriptParam;
+import com.haulmont.scripting.repository.ScriptRepository;
+import com.haulmont.scripting.repository.WarmUp;
+import com.haulmont.scripting.repository.evaluator.ScriptResult;
+
+@ScriptRepository
+public interface WarmUpTestScriptRepository {
+
+    @GroovyScript
+    ScriptResult<String> greet(@ScriptParam("name") String name);
+
+    @GroovyScript
+    @WarmUp(args = {"2", "3"}, invocations = 2)
+    ScriptResult<Integer> sum(@ScriptParam("a") int a, @ScriptParam("b") int b);
+
+    @GroovyScript
+    @WarmUp(args = {"2"})
+    Integer multiply(@ScriptParam("a") int a, @ScriptParam("b") int b);
+
+    @GroovyScript
+    String broken();
+
+    @GroovyScript
+    default String getDefaultName() {
+        return "Default";
+    }
+}
@@ -0,0 +1,106 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import com.haulmont.scripting.repository.provider.VersionedScriptSource;
+import org.junit.Test;
+import org.springframework.scripting.ScriptSource;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks compiled script cache keys, LRU eviction and recompilation of modified sources.
+ */
+public class CompiledScriptCacheTest {
+
+    private final AtomicInteger compilations = new AtomicInteger();
+
+    private final CompiledScriptCache.ScriptCompiler<String> compiler = scriptText -> {
+        compilations.incrementAndGet();
+        return "compiled: " + scriptText;
+    };
+
+    @Test
+    public void testSameTextCompiledOnce() {
+        CompiledScriptCache<String> cache = new CompiledScriptCache<>(10);
+        String first = cache.get(new StaticScriptSource("return 1"), compiler);
+        String second = cache.get(new StaticScriptSource("return 1"), compiler);
+        assertSame(first, second);
+        assertEquals(1, compilations.get());
+        assertEquals(1, cache.size());
+
+        cache.get(new StaticScriptSource("return 2"), compiler);
+        assertEquals(2, compilations.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        List<String> evicted = new ArrayList<>();
+        CompiledScriptCache<String> cache = new CompiledScriptCache<>(2, evicted::add);
+        ScriptSource first = new StaticScriptSource("return 1");
+        ScriptSource second = new StaticScriptSource("return 2");
+        cache.get(first, compiler);
+        cache.get(second, compiler);
+        cache.get(first, compiler);
+        cache.get(new StaticScriptSource("return 3"), compiler);
+
+        assertEquals(2, cache.size());
+        assertEquals(Collections.singletonList("compiled: return 2"), evicted);
+        cache.get(first, compiler);
+        assertEquals(3, compilations.get());
+        cache.get(second, compiler);
+        assertEquals(4, compilations.get());
+
+        cache.setMaxSize(1);
+        assertEquals(1, cache.size());
+        assertEquals(3, evicted.size());
+    }
+
+    @Test
+    public void testZeroSizeDisablesCaching() {
+        List<String> evicted = new ArrayList<>();
+        CompiledScriptCache<String> cache = new CompiledScriptCache<>(0, evicted::add);
+        ScriptSource source = new StaticScriptSource("return 1");
+        assertEquals("compiled: return 1", cache.get(source, compiler));
+        assertEquals("compiled: return 1", cache.get(source, compiler));
+        assertEquals(2, compilations.get());
+        assertEquals(0, cache.size());
+        assertEquals(2, evicted.size());
+    }
+
+    @Test
+    public void testModifiedSourceRecompiled() {
+        CompiledScriptCache<String> cache = new CompiledScriptCache<>(10);
+        StaticScriptSource source = new StaticScriptSource("return 1");
+        assertEquals("compiled: return 1", cache.get(source, compiler));
+        assertEquals("compiled: return 1", cache.get(source, compiler));
+        assertEquals(1, compilations.get());
+
+        source.setScript("return 2");
+        assertEquals("compiled: return 2", cache.get(source, compiler));
+        assertEquals("compiled: return 2", cache.get(source, compiler));
+        assertEquals(2, compilations.get());
+    }
+
+    @Test
+    public void testVersionedSourceKeyedByVersion() {
+        CompiledScriptCache<String> cache = new CompiledScriptCache<>(10);
+        long version = VersionedScriptSource.nextVersion();
+        cache.get(new VersionedScriptSource("return 1", version, "Script", "first"), compiler);
+        //Text of a versioned source is not hashed, the version alone identifies it
+        String sameVersion = cache.get(new VersionedScriptSource("return 1 //same version", version, "Script",
+                "same version"), compiler);
+        assertEquals("compiled: return 1", sameVersion);
+        assertEquals(1, compilations.get());
+
+        String reloaded = cache.get(new VersionedScriptSource("return 2", VersionedScriptSource.nextVersion(),
+                "Script", "reloaded"), compiler);
+        assertEquals("compiled: return 2", reloaded);
+        assertEquals(2, compilations.get());
+    }
+}
@@ -0,0 +1,87 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import org.junit.Test;
+import org.springframework.scripting.support.StaticScriptSource;
+
+import javax.script.ScriptEngine;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that compiled scripts are shared between engines only if the engine declares the "THREADING" parameter.
+ */
+public class Jsr233EvaluatorTest {
+
+    private static final StaticScriptSource SCRIPT = new StaticScriptSource("return 1");
+
+    @Test
+    public void testCompiledScriptsSharedForThreadSafeEngine() throws Exception {
+        TestScriptEngine.Factory factory = new TestScriptEngine.Factory("MULTITHREADED");
+        TestEvaluator evaluator = new TestEvaluator(factory, EnginePoolMode.THREAD_LOCAL);
+        Object engine = evaluator.evaluate(SCRIPT, Collections.emptyMap());
+        Object otherThreadEngine = CompletableFuture.supplyAsync(() -> evaluator.evaluate(SCRIPT))
+                .get(10, TimeUnit.SECONDS);
+        assertSame(engine, otherThreadEngine);
+        assertEquals(1, factory.compilations.get());
+    }
+
+    @Test
+    public void testCompiledScriptsNotSharedForNotThreadSafeEngine() throws Exception {
+        TestScriptEngine.Factory factory = new TestScriptEngine.Factory(null);
+        TestEvaluator evaluator = new TestEvaluator(factory, EnginePoolMode.THREAD_LOCAL);
+        Object engine = evaluator.evaluate(SCRIPT, Collections.emptyMap());
+        assertSame(engine, evaluator.evaluate(SCRIPT));
+        Object otherThreadEngine = CompletableFuture.supplyAsync(() -> evaluator.evaluate(SCRIPT))
+                .get(10, TimeUnit.SECONDS);
+        assertNotSame(engine, otherThreadEngine);
+        assertEquals(2, factory.compilations.get());
+    }
+
+    @Test
+    public void testNoneModeSharesCompiledScriptsOfThreadSafeEngine() {
+        TestScriptEngine.Factory factory = new TestScriptEngine.Factory("MULTITHREADED");
+        TestEvaluator evaluator = new TestEvaluator(factory, EnginePoolMode.NONE);
+        for (int i = 0; i < 3; i++) {
+            evaluator.evaluate(SCRIPT);
+        }
+        assertEquals(1, factory.compilations.get());
+        assertEquals(0, factory.evaluations.get());
+    }
+
+    @Test
+    public void testNoneModeEvaluatesScriptTextOfNotThreadSafeEngine() {
+        TestScriptEngine.Factory factory = new TestScriptEngine.Factory(null);
+        TestEvaluator evaluator = new TestEvaluator(factory, EnginePoolMode.NONE);
+        for (int i = 0; i < 3; i++) {
+            evaluator.evaluate(SCRIPT);
+        }
+        assertEquals(0, factory.compilations.get());
+        assertEquals(3, factory.evaluations.get());
+        assertEquals(4, factory.createdEngines.get());
+    }
+
+    private static class TestEvaluator extends Jsr233Evaluator {
+
+        private final TestScriptEngine.Factory factory;
+
+        TestEvaluator(TestScriptEngine.Factory factory, EnginePoolMode poolMode) {
+            this.factory = factory;
+            setPoolMode(poolMode);
+        }
+
+        @Override
+        protected ScriptEngine createEngine() {
+            return factory.getScriptEngine();
+        }
+
+        @Override
+        protected String getEngineName() {
+            return factory.getEngineName();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import com.haulmont.scripting.repository.evaluator.ScriptEnginePool.PooledEngine;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks engine reuse in every {@link EnginePoolMode} and the bound of the engine pool.
+ */
+public class ScriptEnginePoolTest {
+
+    private final TestScriptEngine.Factory factory = new TestScriptEngine.Factory(null);
+
+    @Test
+    public void testNoneModeCreatesEngineForEveryAcquire() {
+        ScriptEnginePool pool = new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.NONE, 0, 0, 10);
+        PooledEngine first = pool.acquire();
+        pool.release(first);
+        PooledEngine second = pool.acquire();
+        pool.release(second);
+        assertNotSame(first.engine, second.engine);
+        assertEquals(2, factory.createdEngines.get());
+        assertEquals("Engines that are not reused must not cache compiled scripts",
+                0, first.compiledScripts.getMaxSize());
+    }
+
+    @Test
+    public void testThreadLocalModeKeepsEnginePerThread() throws Exception {
+        ScriptEnginePool pool = new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.THREAD_LOCAL, 0, 0, 10);
+        PooledEngine first = pool.acquire();
+        pool.release(first);
+        PooledEngine second = pool.acquire();
+        pool.release(second);
+        assertSame(first, second);
+        assertEquals(10, first.compiledScripts.getMaxSize());
+
+        PooledEngine otherThread = CompletableFuture.supplyAsync(pool::acquire).get(10, TimeUnit.SECONDS);
+        assertNotSame(first, otherThread);
+        assertEquals(2, factory.createdEngines.get());
+    }
+
+    @Test
+    public void testPooledModeReusesReleasedEngine() {
+        ScriptEnginePool pool = new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.POOLED, 2, 0, 10);
+        PooledEngine first = pool.acquire();
+        pool.release(first);
+        PooledEngine second = pool.acquire();
+        assertSame(first, second);
+        assertEquals(1, factory.createdEngines.get());
+    }
+
+    @Test
+    public void testPoolSizeBound() throws Exception {
+        int poolSize = 3;
+        ScriptEnginePool pool = new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.POOLED, poolSize, 10_000, 10);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    for (int j = 0; j < 200; j++) {
+                        PooledEngine engine = pool.acquire();
+                        Thread.yield();
+                        pool.release(engine);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue("At most pool size engines must be created, created: " + factory.createdEngines.get(),
+                factory.createdEngines.get() <= poolSize);
+    }
+
+    @Test
+    public void testAcquireWaitTimeout() {
+        ScriptEnginePool pool = new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.POOLED, 2, 50, 10);
+        PooledEngine first = pool.acquire();
+        pool.acquire();
+        long start = System.nanoTime();
+        try {
+            pool.acquire();
+            fail("Acquire must fail when all engines are checked out");
+        } catch (ScriptEvaluationException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("No script engine available in 50 ms"));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertEquals(2, factory.createdEngines.get());
+
+        pool.release(first);
+        assertSame(first, pool.acquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPooledModeRequiresPositiveSize() {
+        new ScriptEnginePool(factory::getScriptEngine, EnginePoolMode.POOLED, 0, 0, 10);
+    }
+}
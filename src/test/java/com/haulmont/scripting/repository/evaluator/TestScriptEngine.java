@@ -0,0 +1,150 @@
+package com.haulmont.scripting.repository.evaluator;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.SimpleBindings;
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Compilable engine that counts compilations and interpreted evaluations, every evaluation returns the engine
+ * that evaluated the script. Engine factory declares the JSR-223 "THREADING" parameter only if requested.
+ */
+class TestScriptEngine extends AbstractScriptEngine implements Compilable {
+
+    private final Factory factory;
+
+    TestScriptEngine(Factory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) {
+        factory.evaluations.incrementAndGet();
+        return this;
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) {
+        return eval(new BufferedReader(reader).lines().collect(Collectors.joining("\n")), context);
+    }
+
+    @Override
+    public CompiledScript compile(String script) {
+        factory.compilations.incrementAndGet();
+        return new CompiledScript() {
+            @Override
+            public Object eval(ScriptContext context) {
+                return TestScriptEngine.this;
+            }
+
+            @Override
+            public ScriptEngine getEngine() {
+                return TestScriptEngine.this;
+            }
+        };
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) {
+        return compile(new BufferedReader(script).lines().collect(Collectors.joining("\n")));
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    static class Factory implements ScriptEngineFactory {
+
+        final AtomicInteger createdEngines = new AtomicInteger();
+
+        final AtomicInteger compilations = new AtomicInteger();
+
+        final AtomicInteger evaluations = new AtomicInteger();
+
+        private final String threading;
+
+        /**
+         * @param threading value of the "THREADING" parameter, null if engine is not thread-safe.
+         */
+        Factory(String threading) {
+            this.threading = threading;
+        }
+
+        @Override
+        public String getEngineName() {
+            return "test";
+        }
+
+        @Override
+        public String getEngineVersion() {
+            return "1.0";
+        }
+
+        @Override
+        public List<String> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getMimeTypes() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getNames() {
+            return Collections.singletonList(getEngineName());
+        }
+
+        @Override
+        public String getLanguageName() {
+            return "test";
+        }
+
+        @Override
+        public String getLanguageVersion() {
+            return "1.0";
+        }
+
+        @Override
+        public Object getParameter(String key) {
+            return "THREADING".equals(key) ? threading : null;
+        }
+
+        @Override
+        public String getMethodCallSyntax(String obj, String m, String... args) {
+            return obj + "." + m;
+        }
+
+        @Override
+        public String getOutputStatement(String toDisplay) {
+            return toDisplay;
+        }
+
+        @Override
+        public String getProgram(String... statements) {
+            return String.join("\n", statements);
+        }
+
+        @Override
+        public ScriptEngine getScriptEngine() {
+            createdEngines.incrementAndGet();
+            return new TestScriptEngine(this);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.haulmont.scripting.scripts
+
+List<byte[]> chunks = []
+for (int i = 0; i < count; i++) {
+    chunks << new byte[1024]
+}
+return chunks.size()
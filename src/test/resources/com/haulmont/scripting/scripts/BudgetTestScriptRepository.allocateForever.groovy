@@ -0,0 +1,8 @@
+package com.haulmont.scripting.scripts
+
+long total = 0
+while (true) {
+    byte[] chunk = new byte[64 * 1024]
+    total += chunk.length
+}
+return total
@@ -0,0 +1,7 @@
+package com.haulmont.scripting.scripts
+
+long counter = 0
+while (true) {
+    counter++
+}
+return counter
@@ -0,0 +1,3 @@
+package com.haulmont.scripting.scripts
+
+return Thread.currentThread().name
\ No newline at end of file
@@ -0,0 +1,3 @@
+package com.haulmont.scripting.scripts
+
+return amount * 0.13
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.haulmont.scripting.scripts
+
+import com.haulmont.scripting.core.test.files.Customer
+
+class NativeCustomerImpl implements Customer {
+
+    private UUID id
+    private String name
+    private Date birthDate
+
+    UUID getId() {
+        return id
+    }
+
+    void setId(UUID id) {
+        this.id = id
+    }
+
+    String getName() {
+        return name
+    }
+
+    void setName(String name) {
+        this.name = name
+    }
+
+    Date getBirthDate() {
+        return birthDate
+    }
+
+    void setBirthDate(Date birthDate) {
+        this.birthDate = birthDate
+    }
+
+    @Override
+    List<String> getMyData() {
+        return [id.toString(), name, birthDate.toString()]
+    }
+}
+
+NativeCustomerImpl c = new NativeCustomerImpl()
+c.setId(UUID.randomUUID())
+c.setName(name)
+c.setBirthDate(birthDate)
+c
\ No newline at end of file
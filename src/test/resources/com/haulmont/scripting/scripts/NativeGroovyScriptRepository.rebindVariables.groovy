@@ -0,0 +1,4 @@
+first = first.toUpperCase()
+suffix = '!'
+binding.variables.remove('second')
+return [first + suffix, binding.hasVariable('second'), binding.variables.keySet().sort()]